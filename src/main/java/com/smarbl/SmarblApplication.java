@@ -2,12 +2,14 @@ package com.smarbl;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main entry point for the Smarbl Spring Boot application.
  * This class bootstraps and launches the application.
  */
 @SpringBootApplication
+@EnableScheduling
 public class SmarblApplication {
 
     /**
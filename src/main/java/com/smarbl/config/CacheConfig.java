@@ -0,0 +1,29 @@
+package com.smarbl.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Read-through caches in front of the service layer.
+ * <p>
+ * The cache manager is Spring Boot's: Caffeine (W-TinyLFU admission, size and TTL
+ * eviction) configured by the spring.cache.* properties, with hit, miss and
+ * eviction metrics under /actuator/metrics/cache.*. Running with the "nocache"
+ * profile switches every cache off. Entries are read, cached and evicted after
+ * commit through EntityCacheInvalidator, which refuses to cache a row read
+ * before a committed change.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * PostDTOs with content, keyed by post ID.
+     */
+    public static final String POSTS = "posts";
+
+    /**
+     * UserDTOs keyed by user ID.
+     */
+    public static final String USERS = "users";
+}
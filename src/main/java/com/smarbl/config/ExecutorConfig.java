@@ -0,0 +1,111 @@
+package com.smarbl.config;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Dedicated thread pools used by the service layer.
+ * Each pool is bounded so background work can never exhaust the JDBC connection pool.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Executor used to run chunks of a batch like-count query in parallel.
+     * Keep the pool size below the JDBC pool size; when the queue is full the
+     * calling thread runs the chunk itself.
+     *
+     * @param poolSize  number of threads (and therefore concurrent connections)
+     * @param queueSize number of chunks that may wait for a free thread
+     * @return the like-count executor
+     */
+    @Bean(name = "likeCountExecutor")
+    public Executor likeCountExecutor(@Value("${smarbl.like.count.pool-size:4}") int poolSize,
+                                      @Value("${smarbl.like.count.queue-size:256}") int queueSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("like-count-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueSize);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor running asynchronous user deletions. A deletion holds one connection
+     * at a time, so a small pool keeps bulk deletes from crowding out requests;
+     * when the queue is full new deletions are rejected instead of piling up.
+     *
+     * @param poolSize  number of deletions running at once
+     * @param queueSize number of deletions that may wait for a free thread
+     * @return the deletion executor
+     */
+    @Bean(name = "deletionExecutor")
+    public Executor deletionExecutor(@Value("${smarbl.delete.pool-size:1}") int poolSize,
+                                     @Value("${smarbl.delete.queue-size:100}") int queueSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("user-deletion-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueSize);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor that hashes and verifies passwords. bcrypt is pure CPU, so the pool is
+     * no larger than the number of cores; when the queue is full new work is rejected
+     * and the request answered with 503 instead of tying up request threads.
+     * Returned as a ThreadPoolTaskExecutor so its queue depth can be metered.
+     *
+     * @param poolSize  number of passwords hashed at once, the number of cores by default
+     * @param queueSize number of hashes that may wait for a free thread
+     * @return the password hashing executor
+     */
+    @Bean(name = "passwordHashExecutor")
+    public ThreadPoolTaskExecutor passwordHashExecutor(
+            @Value("${smarbl.password.pool-size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int poolSize,
+            @Value("${smarbl.password.queue-size:64}") int queueSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("password-hash-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueSize);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor writing like count events to SSE subscribers, so a slow client blocks
+     * one of these threads rather than the scheduler. Each subscriber has at most one
+     * task queued or running, so the queue only needs room for one task per open
+     * stream; when it is full the subscriber is dropped.
+     *
+     * @param poolSize  number of streams written to at once
+     * @param queueSize number of streams that may wait for a free thread
+     * @return the like stream send executor
+     */
+    @Bean(name = "likeStreamSendExecutor")
+    public Executor likeStreamSendExecutor(@Value("${smarbl.like.stream.send-pool-size:8}") int poolSize,
+                                           @Value("${smarbl.like.stream.send-queue-size:50000}") int queueSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("like-stream-send-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueSize);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
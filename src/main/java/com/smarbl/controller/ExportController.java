@@ -0,0 +1,99 @@
+package com.smarbl.controller;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.smarbl.dto.LikeDTO;
+import com.smarbl.dto.PostDTO;
+import com.smarbl.dto.UserDTO;
+import com.smarbl.service.ExportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Instant;
+
+/**
+ * REST Controller for bulk exports.
+ * Streams users, posts and likes as newline-delimited JSON, one object per line, gzip-compressed when the
+ * client accepts it. Rows are written as they are read from the database, so an export of any size uses
+ * the same small amount of memory.
+ */
+@RestController
+@RequestMapping("/api/v1/export")
+public class ExportController {
+
+    // Logger instance to log messages related to the ExportController
+    private static final Logger logger = LoggerFactory.getLogger(ExportController.class);
+
+    private final ExportService exportService;
+    private final ObjectWriter userWriter;
+    private final ObjectWriter postWriter;
+    private final ObjectWriter likeWriter;
+
+    // Constructor-based dependency injection for ExportService
+    public ExportController(ExportService exportService, ObjectMapper objectMapper) {
+        this.exportService = exportService;
+        // Leave out null fields; on millions of rows they add up
+        ObjectMapper exportMapper = objectMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        this.userWriter = exportMapper.writerFor(UserDTO.class);
+        this.postWriter = exportMapper.writerFor(PostDTO.class);
+        this.likeWriter = exportMapper.writerFor(LikeDTO.class);
+    }
+
+    /**
+     * Endpoint to export all users.
+     *
+     * @param acceptEncoding - the Accept-Encoding header; the export is gzip-compressed if it allows gzip
+     * @return ResponseEntity streaming one UserDTO per line, and HTTP status 200 (OK)
+     */
+    @GetMapping(value = "/users", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        logger.info("Received request to export users");
+        return NdjsonResponses.<UserDTO>stream("users", acceptEncoding, userWriter, exportService::exportUsers);
+    }
+
+    /**
+     * Endpoint to export posts, oldest first, with content, author and like count.
+     *
+     * @param since - optional ISO-8601 instant; only posts created after it are exported
+     * @param acceptEncoding - the Accept-Encoding header; the export is gzip-compressed if it allows gzip
+     * @return ResponseEntity streaming one PostDTO per line, and HTTP status 200 (OK)
+     */
+    @GetMapping(value = "/posts", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportPosts(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant since,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Instant from = since == null ? Instant.EPOCH : since;
+        logger.info("Received request to export posts created after {}", from);
+        return NdjsonResponses.<PostDTO>stream("posts", acceptEncoding, postWriter,
+                sink -> exportService.exportPosts(from, sink));
+    }
+
+    /**
+     * Endpoint to export likes, oldest first.
+     *
+     * @param since - optional ISO-8601 instant; only likes created after it are exported
+     * @param acceptEncoding - the Accept-Encoding header; the export is gzip-compressed if it allows gzip
+     * @return ResponseEntity streaming one LikeDTO per line, and HTTP status 200 (OK)
+     */
+    @GetMapping(value = "/likes", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportLikes(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant since,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Instant from = since == null ? Instant.EPOCH : since;
+        logger.info("Received request to export likes created after {}", from);
+        return NdjsonResponses.<LikeDTO>stream("likes", acceptEncoding, likeWriter,
+                sink -> exportService.exportLikes(from, sink));
+    }
+}
@@ -1,18 +1,30 @@
 package com.smarbl.controller;
 
+import com.smarbl.dto.CursorPageDTO;
+import com.smarbl.dto.LikeBatchResultDTO;
 import com.smarbl.dto.LikeDTO;
 import com.smarbl.dto.LikeCountDTO;
 import com.smarbl.dto.UserDTO;
+import com.smarbl.exception.PostNotFoundException;
+import com.smarbl.exception.ServiceBusyException;
+import com.smarbl.exception.UserNotFoundException;
+import com.smarbl.exception.ValidationException;
 import com.smarbl.service.LikeService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * REST Controller for Like API.
@@ -23,20 +35,85 @@ public class LikeController {
 
     private static final Logger logger = LoggerFactory.getLogger(LikeController.class);
     private final LikeService likeService;
+    private final boolean asyncLikes;
 
-    public LikeController(LikeService likeService) {
+    public LikeController(LikeService likeService,
+                          @Value("${smarbl.like.async.enabled:false}") boolean asyncLikes) {
         this.likeService = likeService;
+        this.asyncLikes = asyncLikes;
     }
 
+    /**
+     * Endpoint to like a post. With smarbl.like.async.enabled the like is queued for a
+     * group commit and the response is sent once it has committed, without holding the
+     * request thread; a full queue is answered with 503 (Service Unavailable) and Retry-After.
+     * A duplicate like, a like of one's own post, or an unknown post or user is answered
+     * with 400 (Bad Request), as in /batch.
+     *
+     * @param likeDTO - the like to create, with postId and userId
+     * @return ResponseEntity with HTTP status 201 (Created)
+     */
     @PostMapping
-    public ResponseEntity<Void> likePost(@Valid @RequestBody LikeDTO likeDTO) {
+    public CompletableFuture<ResponseEntity<Void>> likePost(@Valid @RequestBody LikeDTO likeDTO) {
         logger.info("Received request to like post with data: {}", likeDTO);
+        if (!asyncLikes) {
+            try {
+                likeService.likePost(likeDTO);
+                logger.info("Post liked successfully with data: {}", likeDTO);
+                return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.CREATED));
+            } catch (ValidationException | PostNotFoundException | UserNotFoundException e) {
+                logger.warn("Rejected like with data: {}: {}", likeDTO, e.getMessage());
+                return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+            } catch (Exception e) {
+                logger.error("Error occurred while liking post with data: {}", likeDTO, e);
+                return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR));
+            }
+        }
+
         try {
-            likeService.likePost(likeDTO);
-            logger.info("Post liked successfully with data: {}", likeDTO);
-            return new ResponseEntity<>(HttpStatus.CREATED);
+            return likeService.likePostAsync(likeDTO).handle((ignored, error) -> {
+                if (error == null) {
+                    logger.info("Post liked successfully with data: {}", likeDTO);
+                    return new ResponseEntity<>(HttpStatus.CREATED);
+                }
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                if (cause instanceof ValidationException || cause instanceof PostNotFoundException
+                        || cause instanceof UserNotFoundException) {
+                    logger.warn("Rejected like with data: {}: {}", likeDTO, cause.getMessage());
+                    return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+                }
+                logger.error("Error occurred while liking post with data: {}", likeDTO, cause);
+                return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+            });
+        } catch (ServiceBusyException e) {
+            logger.warn("Like queue is full, rejecting like with data: {}", likeDTO);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds())).build());
         } catch (Exception e) {
             logger.error("Error occurred while liking post with data: {}", likeDTO, e);
+            return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR));
+        }
+    }
+
+    /**
+     * Endpoint to like many posts in one request, e.g. when a client replays likes queued offline.
+     *
+     * @param likeDTOs - the likes to create, each with postId and userId
+     * @return ResponseEntity with the outcome of every like, in request order, and HTTP status 200 (OK)
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<LikeBatchResultDTO>> likePosts(@RequestBody List<LikeDTO> likeDTOs) {
+        logger.info("Received request to like {} posts in a batch", likeDTOs.size());
+        try {
+            List<LikeBatchResultDTO> results = likeService.likePosts(likeDTOs);
+            logger.info("Like batch of {} items processed successfully", likeDTOs.size());
+            return ResponseEntity.ok(results);
+        } catch (ValidationException e) {
+            logger.warn("Rejected like batch of {} items: {}", likeDTOs.size(), e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            logger.error("Error occurred while processing like batch of {} items", likeDTOs.size(), e);
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
@@ -54,13 +131,53 @@ public class LikeController {
         }
     }
 
+    /**
+     * Endpoint to receive like counts as Server-Sent Events instead of polling /count.
+     * The first "like-count" event holds the current counts; later events hold the posts
+     * whose count changed, at most once per coalescing window.
+     *
+     * @param postIds - the IDs of the posts to follow
+     * @return SseEmitter streaming lists of LikeCountDTO
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamLikeCounts(@RequestParam List<UUID> postIds) {
+        logger.info("Received request to stream like counts for posts with IDs: {}", postIds);
+        try {
+            return ResponseEntity.ok(likeService.subscribeToLikeCounts(postIds));
+        } catch (ValidationException e) {
+            logger.warn("Rejected like count stream for posts {}: {}", postIds, e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            logger.error("Error occurred while opening like count stream for posts: {}", postIds, e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Endpoint to page through the users who liked a post.
+     * <p>
+     * Breaking change: this endpoint used to return a bare JSON array of every user
+     * who liked the post. It now returns a page object, {"items": [...],
+     * "nextCursor": "..."}, holding at most limit users; clients must read items
+     * and follow nextCursor until it is null to get all of them.
+     *
+     * @param postId - the ID of the post
+     * @param limit  - the maximum number of users per page
+     * @param cursor - the nextCursor of the previous page, omitted for the first page
+     * @return ResponseEntity with the page of users and the next cursor, and HTTP status 200 (OK)
+     */
     @GetMapping("/users/{postId}")
-    public ResponseEntity<List<UserDTO>> getUsersWhoLikedPost(@PathVariable UUID postId) {
+    public ResponseEntity<CursorPageDTO<UserDTO>> getUsersWhoLikedPost(@PathVariable UUID postId,
+                                                                       @RequestParam(defaultValue = "50") int limit,
+                                                                       @RequestParam(required = false) String cursor) {
         logger.info("Received request to get users who liked the post with ID: {}", postId);
         try {
-            List<UserDTO> usersWhoLiked = likeService.getUsersWhoLikedPost(postId);
+            CursorPageDTO<UserDTO> usersWhoLiked = likeService.getUsersWhoLikedPost(postId, limit, cursor);
             logger.info("Successfully fetched users who liked post with ID: {}", postId);
             return ResponseEntity.ok(usersWhoLiked);
+        } catch (ValidationException e) {
+            logger.warn("Rejected request for users who liked post with ID: {}: {}", postId, e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             logger.error("Error occurred while fetching users who liked post with ID: {}", postId, e);
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
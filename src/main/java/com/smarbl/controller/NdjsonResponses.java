@@ -0,0 +1,82 @@
+package com.smarbl.controller;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Builds newline-delimited JSON responses that are written while rows are read.
+ * Rows go straight to the response, gzip-compressed when the client accepts it, and the response is not
+ * flushed per row, so a response of any size uses the same small amount of memory.
+ */
+final class NdjsonResponses {
+
+    private static final Logger logger = LoggerFactory.getLogger(NdjsonResponses.class);
+
+    private NdjsonResponses() {
+    }
+
+    /**
+     * Builds a streaming response. Once streaming has started the status is already sent, so an error is
+     * logged and rethrown: the container then aborts the connection instead of ending the body cleanly,
+     * and the client sees a failed transfer rather than a short but well-formed export.
+     *
+     * @param what           - what is streamed, for the logs
+     * @param acceptEncoding - the request's Accept-Encoding header, may be null
+     * @param writer         - writer for one row
+     * @param export         - reads the rows and hands each one to the sink it is given
+     * @return ResponseEntity streaming one row per line, and HTTP status 200 (OK)
+     */
+    static <T> ResponseEntity<StreamingResponseBody> stream(String what, String acceptEncoding, ObjectWriter writer,
+                                                            Consumer<Consumer<T>> export) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        StreamingResponseBody body = outputStream -> {
+            try {
+                if (gzip) {
+                    GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream, 8192);
+                    export.accept(sink(gzipStream, writer));
+                    gzipStream.finish();
+                } else {
+                    export.accept(sink(outputStream, writer));
+                }
+                logger.info("Streaming of {} completed successfully", what);
+            } catch (UncheckedIOException e) {
+                logger.warn("Client went away while streaming {}: {}", what, e.getMessage());
+                throw e.getCause();
+            } catch (Exception e) {
+                // Log the error with exception stack trace
+                logger.error("Error occurred while streaming {}", what, e);
+                throw e;
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    private static <T> Consumer<T> sink(OutputStream outputStream, ObjectWriter writer) {
+        return row -> {
+            try {
+                outputStream.write(writer.writeValueAsBytes(row));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+}
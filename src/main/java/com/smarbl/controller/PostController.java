@@ -1,14 +1,31 @@
  package com.smarbl.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.smarbl.dto.CursorPageDTO;
+import com.smarbl.dto.PostBatchResultDTO;
 import com.smarbl.dto.PostDTO;
+import com.smarbl.dto.PostSearchResultDTO;
+import com.smarbl.dto.PostSummaryDTO;
+import com.smarbl.dto.TrendingPostDTO;
+import com.smarbl.exception.UserNotFoundException;
+import com.smarbl.exception.ValidationException;
 import com.smarbl.service.PostService;
+import com.smarbl.util.ETags;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -24,10 +41,15 @@ public class PostController {
     private static final Logger logger = LoggerFactory.getLogger(PostController.class);
 
     private final PostService postService;
+    private final ObjectWriter resultWriter;
+    private final int maxBatchSize;
 
     // Constructor-based dependency injection for PostService
-    public PostController(PostService postService) {
+    public PostController(PostService postService, ObjectMapper objectMapper,
+                          @Value("${smarbl.post.batch.max-size:10000}") int maxBatchSize) {
         this.postService = postService;
+        this.resultWriter = objectMapper.writerFor(PostBatchResultDTO.class);
+        this.maxBatchSize = maxBatchSize;
     }
 
     /**
@@ -52,6 +74,53 @@ public class PostController {
         }
     }
 
+    /**
+     * Endpoint to create many posts in one request, e.g. when migrating content from another system.
+     * Results are streamed as newline-delimited JSON, one PostBatchResultDTO per post in request order,
+     * flushed as each chunk of posts commits. If the connection drops, the chunks already streamed are
+     * committed and the rest are not written, so a client can resume from the first missing index.
+     * An error after streaming has started is rethrown, so the connection is aborted and the client
+     * sees a failed transfer instead of a short but well-formed body.
+     *
+     * @param postDTOs - the posts to create, each with title, content and userId
+     * @return ResponseEntity streaming the outcome of every post, and HTTP status 200 (OK)
+     */
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> createPosts(@RequestBody List<PostDTO> postDTOs) {
+        logger.info("Received request to create {} posts in a batch", postDTOs.size());
+
+        // Checked here as well as in the service, because once streaming starts the status is already sent
+        if (postDTOs.size() > maxBatchSize) {
+            logger.warn("Rejected post batch of {} items, the limit is {}", postDTOs.size(), maxBatchSize);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            try {
+                postService.createPosts(postDTOs, results -> {
+                    try {
+                        for (PostBatchResultDTO result : results) {
+                            outputStream.write(resultWriter.writeValueAsBytes(result));
+                            outputStream.write('\n');
+                        }
+                        outputStream.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                logger.info("Post batch of {} items processed successfully", postDTOs.size());
+            } catch (UncheckedIOException e) {
+                logger.warn("Client went away during a post batch of {} items: {}", postDTOs.size(), e.getMessage());
+                throw e.getCause();
+            } catch (Exception e) {
+                // Log the error with exception stack trace
+                logger.error("Error occurred while processing post batch of {} items", postDTOs.size(), e);
+                throw e;
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     /**
      * Endpoint to delete a post by its ID.
      * Logs the post deletion process, including any errors.
@@ -77,19 +146,33 @@ public class PostController {
     /**
      * Endpoint to fetch a post by its ID.
      * Logs the process of fetching a post and any related errors.
+     * The response carries an ETag built from the post ID and version; a matching If-None-Match
+     * is answered with 304 after reading the version alone.
      *
-     * @param postId - ID of the post to retrieve
-     * @return ResponseEntity with the requested post data and HTTP status 200 (OK)
+     * @param postId         - ID of the post to retrieve
+     * @param includeContent - whether to return the post body; false skips reading it
+     * @param ifNoneMatch    - ETags the client already holds, if any
+     * @return ResponseEntity with the requested post data and HTTP status 200 (OK), or 304 (Not Modified)
      */
     @GetMapping("/{postId}")
-    public ResponseEntity<PostDTO> getPostById(@PathVariable UUID postId) {
+    public ResponseEntity<PostDTO> getPostById(@PathVariable UUID postId,
+                                               @RequestParam(defaultValue = "true") boolean includeContent,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         logger.info("Received request to get post with ID: {}", postId);
 
         try {
-            PostDTO postDTO = postService.getPostById(postId);
+            if (ifNoneMatch != null) {
+                String currentETag = postETag(postId, includeContent, postService.getPostVersion(postId));
+                if (ETags.matches(ifNoneMatch, currentETag)) {
+                    logger.info("Post with ID: {} not modified", postId);
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(currentETag).build();
+                }
+            }
+
+            PostDTO postDTO = postService.getPostById(postId, includeContent);
             if (postDTO != null) {
                 logger.info("Post with ID: {} found and returned", postId);
-                return ResponseEntity.ok(postDTO);
+                return ResponseEntity.ok().eTag(postETag(postId, includeContent, postDTO.getVersion())).body(postDTO);
             } else {
                 logger.warn("Post with ID: {} not found", postId);
                 return new ResponseEntity<>(HttpStatus.NOT_FOUND);
@@ -102,24 +185,141 @@ public class PostController {
     }
 
     /**
-     * Endpoint to fetch all posts by a specific user.
+     * Endpoint to page through the posts of a specific user, newest first.
      * Logs the process of fetching posts for a user and any errors encountered.
      *
-     * @param userId - ID of the user whose posts need to be fetched
-     * @return ResponseEntity with the list of posts and HTTP status 200 (OK)
+     * The response carries an ETag digested from the page itself, so an unconditional request costs
+     * only the keyset read of the page; a matching If-None-Match is answered with 304 without a body.
+     *
+     * @param userId      - ID of the user whose posts need to be fetched
+     * @param limit       - maximum number of posts per page
+     * @param cursor      - nextCursor of the previous page, omitted for the first page
+     * @param ifNoneMatch - ETags the client already holds, if any
+     * @return ResponseEntity with the page of post summaries and HTTP status 200 (OK), or 304 (Not Modified)
      */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<PostDTO>> getAllPostsByUser(@PathVariable UUID userId) {
+    public ResponseEntity<CursorPageDTO<PostSummaryDTO>> getAllPostsByUser(@PathVariable UUID userId,
+                                                                           @RequestParam(defaultValue = "50") int limit,
+                                                                           @RequestParam(required = false) String cursor,
+                                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         logger.info("Received request to get all posts for user with ID: {}", userId);
 
         try {
-            List<PostDTO> posts = postService.getAllPostsByUser(userId);
-            logger.info("Successfully fetched {} posts for user with ID: {}", posts.size(), userId);
-            return ResponseEntity.ok(posts);
+            CursorPageDTO<PostSummaryDTO> posts = postService.getAllPostsByUser(userId, limit, cursor);
+            String currentETag = postListETag(userId, posts, limit, cursor);
+            if (ETags.matches(ifNoneMatch, currentETag)) {
+                logger.info("Posts of user with ID: {} not modified", userId);
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(currentETag).build();
+            }
+            logger.info("Successfully fetched {} posts for user with ID: {}", posts.getItems().size(), userId);
+            return ResponseEntity.ok().eTag(currentETag).body(posts);
+        } catch (UserNotFoundException e) {
+            logger.warn("User with ID: {} not found", userId);
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (ValidationException e) {
+            logger.warn("Rejected request for posts of user with ID: {}: {}", userId, e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             // Log the error with exception stack trace
             logger.error("Error occurred while fetching posts for user with ID: {}", userId, e);
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+
+    /**
+     * Endpoint to page through the feed, newest first, with author names and like counts,
+     * so a page can be rendered without calling the like count and user endpoints.
+     *
+     * @param userId - ID of the author to restrict the feed to, omitted for all posts
+     * @param limit  - maximum number of posts per page
+     * @param cursor - nextCursor of the previous page, omitted for the first page
+     * @return ResponseEntity with the page of posts and HTTP status 200 (OK)
+     */
+    @GetMapping("/feed")
+    public ResponseEntity<CursorPageDTO<PostDTO>> getFeed(@RequestParam(required = false) UUID userId,
+                                                          @RequestParam(defaultValue = "20") int limit,
+                                                          @RequestParam(required = false) String cursor) {
+        logger.info("Received request to get the feed for user with ID: {}", userId);
+
+        try {
+            CursorPageDTO<PostDTO> feed = postService.getFeed(userId, limit, cursor);
+            logger.info("Successfully fetched {} feed posts", feed.getItems().size());
+            return ResponseEntity.ok(feed);
+        } catch (ValidationException e) {
+            logger.warn("Rejected feed request: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            // Log the error with exception stack trace
+            logger.error("Error occurred while fetching the feed", e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Endpoint to search post titles and content, best matches first.
+     *
+     * @param q    - the words to search for
+     * @param page - zero-based page number
+     * @param size - number of hits per page
+     * @return ResponseEntity with the total number of matches and the page of hits, and HTTP status 200 (OK)
+     */
+    @GetMapping("/search")
+    public ResponseEntity<PostSearchResultDTO> searchPosts(@RequestParam String q,
+                                                           @RequestParam(defaultValue = "0") int page,
+                                                           @RequestParam(defaultValue = "20") int size) {
+        logger.info("Received request to search posts for: {}", q);
+
+        try {
+            return ResponseEntity.ok(postService.searchPosts(q, page, size));
+        } catch (ValidationException e) {
+            logger.warn("Rejected search request: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            // Log the error with exception stack trace
+            logger.error("Error occurred while searching posts for: {}", q, e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Endpoint to fetch the trending posts, ranked by likes with recent likes weighing more.
+     *
+     * @param limit - maximum number of posts to return
+     * @return ResponseEntity with the trending posts, highest score first, and HTTP status 200 (OK)
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingPostDTO>> getTrendingPosts(@RequestParam(defaultValue = "20") int limit) {
+        logger.info("Received request to get {} trending posts", limit);
+
+        try {
+            return ResponseEntity.ok(postService.getTrendingPosts(limit));
+        } catch (ValidationException e) {
+            logger.warn("Rejected trending posts request: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            // Log the error with exception stack trace
+            logger.error("Error occurred while fetching trending posts", e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // Posts fetched without content are a different representation, so they get their own tag
+    private static String postETag(UUID postId, boolean includeContent, long version) {
+        return ETags.of(postId, includeContent ? null : "summary", version);
+    }
+
+    private static String postListETag(UUID userId, CursorPageDTO<PostSummaryDTO> page, int limit, String cursor) {
+        List<Object> parts = new ArrayList<>(page.getItems().size() * 5 + 3);
+        for (PostSummaryDTO post : page.getItems()) {
+            parts.add(post.getPostId().getMostSignificantBits());
+            parts.add(post.getPostId().getLeastSignificantBits());
+            parts.add(post.getPostTitle());
+            parts.add(post.getCreatedAt().getEpochSecond());
+            parts.add(post.getCreatedAt().getNano());
+        }
+        parts.add(page.getNextCursor());
+        parts.add(limit);
+        parts.add(cursor);
+        return ETags.digest(userId, parts.toArray());
+    }
 }
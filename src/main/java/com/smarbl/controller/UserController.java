@@ -1,16 +1,27 @@
 package com.smarbl.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smarbl.dto.CursorPageDTO;
+import com.smarbl.dto.DeletionJobDTO;
 import com.smarbl.dto.UserDTO;
+import com.smarbl.exception.ServiceBusyException;
+import com.smarbl.exception.UserNotFoundException;
+import com.smarbl.exception.ValidationException;
+import com.smarbl.service.ExportService;
 import com.smarbl.service.UserService;
+import com.smarbl.util.ETags;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.List;
+import java.net.URI;
 import java.util.UUID;
 
 /**
@@ -24,6 +35,12 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     // Logger instance for logging events and errors within the UserController
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
 
@@ -77,22 +94,39 @@ public class UserController {
     }
 
     /**
-     * Endpoint to delete a user by its ID.
+     * Endpoint to delete a user by its ID, together with the user's posts and likes.
      * Logs the request and successful deletion.
+     * With async=true the deletion runs in the background and the response is 202 (Accepted) with the job,
+     * whose progress can be polled at the Location header; a full deletion queue is answered with
+     * 503 (Service Unavailable) and Retry-After.
      *
      * @param userId - ID of the user to delete
-     * @return ResponseEntity with HTTP status 204 (No Content)
+     * @param async  - whether to delete in the background
+     * @return ResponseEntity with HTTP status 204 (No Content), or 202 (Accepted) with the deletion job
      */
     @DeleteMapping("/{userId}")
-    public ResponseEntity<Void> deleteUser(@PathVariable UUID userId) {
+    public ResponseEntity<DeletionJobDTO> deleteUser(@PathVariable UUID userId,
+                                                     @RequestParam(defaultValue = "false") boolean async) {
         // Log the request to delete a user
         logger.info("Received request to delete user with ID: {}", userId);
 
         try {
+            if (async) {
+                DeletionJobDTO job = userService.deleteUserAsync(userId);
+                logger.info("Deletion of user with ID: {} queued as job {}", userId, job.getJobId());
+                return ResponseEntity.accepted().location(URI.create("/api/v1/deletions/" + job.getJobId())).body(job);
+            }
             userService.deleteUser(userId);
             // Log successful user deletion
             logger.info("User with ID: {} deleted successfully", userId);
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        } catch (UserNotFoundException e) {
+            logger.warn("User with ID: {} not found", userId);
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (ServiceBusyException e) {
+            logger.warn("Deletion queue is full, rejecting deletion of user with ID: {}", userId);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds())).build();
         } catch (Exception e) {
             // Log any errors that occur during user deletion
             logger.error("Error occurred while deleting user with ID: {}", userId, e);
@@ -100,24 +134,52 @@ public class UserController {
         }
     }
 
+    /**
+     * Endpoint to poll the progress of a background user deletion.
+     *
+     * @param jobId - ID of the deletion job
+     * @return ResponseEntity with the job and HTTP status 200 (OK), or 404 (Not Found) once it has expired
+     */
+    @GetMapping("/deletions/{jobId}")
+    public ResponseEntity<DeletionJobDTO> getDeletionJob(@PathVariable UUID jobId) {
+        DeletionJobDTO job = userService.getDeletionJob(jobId);
+        if (job == null) {
+            logger.warn("Deletion job {} not found", jobId);
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return ResponseEntity.ok(job);
+    }
+
     /**
      * Endpoint to get a user by its ID.
      * Logs the request and successful retrieval.
+     * The response carries an ETag built from the user ID and version; a matching If-None-Match
+     * is answered with 304 after reading the version alone.
      *
-     * @param userId - ID of the user to fetch
-     * @return ResponseEntity with the user data and HTTP status 200 (OK)
+     * @param userId      - ID of the user to fetch
+     * @param ifNoneMatch - ETags the client already holds, if any
+     * @return ResponseEntity with the user data and HTTP status 200 (OK), or 304 (Not Modified)
      */
     @GetMapping("/{userId}")
-    public ResponseEntity<UserDTO> getUserById(@PathVariable UUID userId) {
+    public ResponseEntity<UserDTO> getUserById(@PathVariable UUID userId,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         // Log the request to get a user by ID
         logger.info("Received request to get user with ID: {}", userId);
 
         try {
+            if (ifNoneMatch != null) {
+                String currentETag = ETags.of(userId, null, userService.getUserVersion(userId));
+                if (ETags.matches(ifNoneMatch, currentETag)) {
+                    logger.info("User with ID: {} not modified", userId);
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(currentETag).build();
+                }
+            }
+
             UserDTO userDTO = userService.getUserById(userId);
             if (userDTO != null) {
                 // Log successful retrieval of user
                 logger.info("User with ID: {} retrieved successfully", userId);
-                return new ResponseEntity<>(userDTO, HttpStatus.OK);
+                return ResponseEntity.ok().eTag(ETags.of(userId, null, userDTO.getVersion())).body(userDTO);
             } else {
                 // Log if the user is not found
                 logger.warn("User with ID: {} not found", userId);
@@ -131,25 +193,48 @@ public class UserController {
     }
 
     /**
-     * Endpoint to get all users.
-     * Logs the request and returns the list of users.
+     * Endpoint to page through all users, in user ID order.
+     * Users are read with a keyset query that seeks past the cursor, so every page costs the same however deep
+     * it is. For a full dump use stream=true instead of walking the pages.
      *
-     * @return ResponseEntity with the list of users and HTTP status 200 (OK)
+     * @param limit  - maximum number of users per page
+     * @param cursor - nextCursor of the previous page, omitted for the first page
+     * @return ResponseEntity with the page of users and HTTP status 200 (OK)
      */
     @GetMapping("/")
-    public ResponseEntity<List<UserDTO>> getAllUsers() {
-        // Log the request to fetch all users
-        logger.info("Received request to get all users");
+    public ResponseEntity<CursorPageDTO<UserDTO>> getAllUsers(@RequestParam(defaultValue = "50") int limit,
+                                                              @RequestParam(required = false) String cursor) {
+        // Log the request to fetch a page of users
+        logger.info("Received request to get a page of users");
 
         try {
-            List<UserDTO> users = userService.getAllUsers();
-            // Log successful retrieval of all users
-            logger.info("Successfully retrieved {} users", users.size());
-            return new ResponseEntity<>(users, HttpStatus.OK);
+            CursorPageDTO<UserDTO> users = userService.getAllUsers(limit, cursor);
+            // Log successful retrieval of the page
+            logger.info("Successfully retrieved {} users", users.getItems().size());
+            return ResponseEntity.ok(users);
+        } catch (ValidationException e) {
+            logger.warn("Rejected request for a page of users: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
-            // Log any errors that occur during fetching all users
-            logger.error("Error occurred while retrieving all users", e);
+            // Log any errors that occur during fetching the users
+            logger.error("Error occurred while retrieving users", e);
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+
+    /**
+     * Endpoint to stream all users as newline-delimited JSON, in user ID order, gzip-compressed when the
+     * client accepts it. Rows are written as they are read, so memory use does not grow with the table.
+     *
+     * @param acceptEncoding - the Accept-Encoding header; the response is gzip-compressed if it allows gzip
+     * @return ResponseEntity streaming one UserDTO per line, and HTTP status 200 (OK)
+     */
+    @GetMapping(value = "/", params = "stream=true", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        // Log the request to stream all users
+        logger.info("Received request to stream all users");
+        return NdjsonResponses.<UserDTO>stream("users", acceptEncoding, objectMapper.writerFor(UserDTO.class),
+                exportService::exportUsers);
+    }
 }
@@ -0,0 +1,51 @@
+package com.smarbl.dto;
+
+import java.util.List;
+
+/**
+ * DTO for one page of a keyset-paginated list.
+ *
+ * @param <T> the item type
+ */
+public class CursorPageDTO<T> {
+
+	private List<T> items;
+	private String nextCursor;
+
+	// Default constructor
+	public CursorPageDTO() {
+	}
+
+	public CursorPageDTO(List<T> items, String nextCursor) {
+		this.items = items;
+		this.nextCursor = nextCursor;
+	}
+
+	/**
+	 * @return the items of this page
+	 */
+	public List<T> getItems() {
+		return items;
+	}
+
+	/**
+	 * @return the cursor to pass to get the next page, or null if this is the last page
+	 */
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	/**
+	 * @param items the items to set
+	 */
+	public void setItems(List<T> items) {
+		this.items = items;
+	}
+
+	/**
+	 * @param nextCursor the nextCursor to set
+	 */
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+}
@@ -0,0 +1,156 @@
+package com.smarbl.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * DTO for reporting the progress of an asynchronous user deletion.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DeletionJobDTO {
+
+	private UUID jobId;
+	private UUID userId;
+	private DeletionJobStatus status;
+	private long likesDeleted;
+	private long postsDeleted;
+	private Instant submittedAt;
+	private Instant finishedAt;
+	private String message;
+
+	// Default constructor
+	public DeletionJobDTO() {
+	}
+
+	public DeletionJobDTO(UUID jobId, UUID userId, DeletionJobStatus status, long likesDeleted, long postsDeleted,
+			Instant submittedAt, Instant finishedAt, String message) {
+		this.jobId = jobId;
+		this.userId = userId;
+		this.status = status;
+		this.likesDeleted = likesDeleted;
+		this.postsDeleted = postsDeleted;
+		this.submittedAt = submittedAt;
+		this.finishedAt = finishedAt;
+		this.message = message;
+	}
+
+	/**
+	 * @return the jobId
+	 */
+	public UUID getJobId() {
+		return jobId;
+	}
+
+	/**
+	 * @return the userId
+	 */
+	public UUID getUserId() {
+		return userId;
+	}
+
+	/**
+	 * @return the status
+	 */
+	public DeletionJobStatus getStatus() {
+		return status;
+	}
+
+	/**
+	 * @return the number of likes deleted so far
+	 */
+	public long getLikesDeleted() {
+		return likesDeleted;
+	}
+
+	/**
+	 * @return the number of posts deleted so far
+	 */
+	public long getPostsDeleted() {
+		return postsDeleted;
+	}
+
+	/**
+	 * @return the submittedAt
+	 */
+	public Instant getSubmittedAt() {
+		return submittedAt;
+	}
+
+	/**
+	 * @return the finishedAt, null while the job is queued or running
+	 */
+	public Instant getFinishedAt() {
+		return finishedAt;
+	}
+
+	/**
+	 * @return why the job failed, null otherwise
+	 */
+	public String getMessage() {
+		return message;
+	}
+
+	/**
+	 * @param jobId the jobId to set
+	 */
+	public void setJobId(UUID jobId) {
+		this.jobId = jobId;
+	}
+
+	/**
+	 * @param userId the userId to set
+	 */
+	public void setUserId(UUID userId) {
+		this.userId = userId;
+	}
+
+	/**
+	 * @param status the status to set
+	 */
+	public void setStatus(DeletionJobStatus status) {
+		this.status = status;
+	}
+
+	/**
+	 * @param likesDeleted the likesDeleted to set
+	 */
+	public void setLikesDeleted(long likesDeleted) {
+		this.likesDeleted = likesDeleted;
+	}
+
+	/**
+	 * @param postsDeleted the postsDeleted to set
+	 */
+	public void setPostsDeleted(long postsDeleted) {
+		this.postsDeleted = postsDeleted;
+	}
+
+	/**
+	 * @param submittedAt the submittedAt to set
+	 */
+	public void setSubmittedAt(Instant submittedAt) {
+		this.submittedAt = submittedAt;
+	}
+
+	/**
+	 * @param finishedAt the finishedAt to set
+	 */
+	public void setFinishedAt(Instant finishedAt) {
+		this.finishedAt = finishedAt;
+	}
+
+	/**
+	 * @param message the message to set
+	 */
+	public void setMessage(String message) {
+		this.message = message;
+	}
+
+	@Override
+	public String toString() {
+		return "DeletionJobDTO{" + "jobId=" + jobId + ", userId=" + userId + ", status=" + status + ", likesDeleted="
+				+ likesDeleted + ", postsDeleted=" + postsDeleted + '}';
+	}
+}
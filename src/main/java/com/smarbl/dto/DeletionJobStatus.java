@@ -0,0 +1,19 @@
+package com.smarbl.dto;
+
+/**
+ * State of an asynchronous user deletion.
+ */
+public enum DeletionJobStatus {
+
+	/** Waiting for a free deletion thread. */
+	QUEUED,
+
+	/** Deleting likes, posts and finally the user. */
+	RUNNING,
+
+	/** The user and everything referencing it are gone. */
+	COMPLETED,
+
+	/** The deletion stopped part way; it can be started again. */
+	FAILED
+}
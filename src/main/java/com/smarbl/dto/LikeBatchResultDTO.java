@@ -0,0 +1,70 @@
+package com.smarbl.dto;
+
+import java.util.UUID;
+
+/**
+ * DTO for returning the outcome of one like in a batch like request.
+ */
+public class LikeBatchResultDTO {
+
+	private UUID postId;
+	private UUID userId;
+	private LikeOutcome outcome;
+
+	// Default constructor
+	public LikeBatchResultDTO() {
+	}
+
+	public LikeBatchResultDTO(UUID postId, UUID userId, LikeOutcome outcome) {
+		this.postId = postId;
+		this.userId = userId;
+		this.outcome = outcome;
+	}
+
+	/**
+	 * @return the postId
+	 */
+	public UUID getPostId() {
+		return postId;
+	}
+
+	/**
+	 * @return the userId
+	 */
+	public UUID getUserId() {
+		return userId;
+	}
+
+	/**
+	 * @return the outcome
+	 */
+	public LikeOutcome getOutcome() {
+		return outcome;
+	}
+
+	/**
+	 * @param postId the postId to set
+	 */
+	public void setPostId(UUID postId) {
+		this.postId = postId;
+	}
+
+	/**
+	 * @param userId the userId to set
+	 */
+	public void setUserId(UUID userId) {
+		this.userId = userId;
+	}
+
+	/**
+	 * @param outcome the outcome to set
+	 */
+	public void setOutcome(LikeOutcome outcome) {
+		this.outcome = outcome;
+	}
+
+	@Override
+	public String toString() {
+		return "LikeBatchResultDTO{" + "postId=" + postId + ", userId=" + userId + ", outcome=" + outcome + '}';
+	}
+}
@@ -1,7 +1,10 @@
 package com.smarbl.dto;
 
+import java.time.Instant;
 import java.util.UUID;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -24,10 +27,28 @@ public class LikeDTO {
 	private String userName; // Simplified user data
 	private String postTitle; // Simplified post data
 
+	// Filled only by the export; ignored when liking a post
+	@JsonProperty(access = JsonProperty.Access.READ_ONLY)
+	private Instant createdAt;
+
 	// Default constructor
 	public LikeDTO() {
 	}
 
+	// Constructor for a (post, user) pair
+	public LikeDTO(UUID postId, UUID userId) {
+		this.postId = postId;
+		this.userId = userId;
+	}
+
+	// Constructor for exported likes
+	public LikeDTO(UUID likeId, UUID postId, UUID userId, Instant createdAt) {
+		this.likeId = likeId;
+		this.postId = postId;
+		this.userId = userId;
+		this.createdAt = createdAt;
+	}
+
 	// Constructor for easy creation
 	public LikeDTO(UUID likeId, String userName, String postTitle) {
 		this.likeId = likeId;
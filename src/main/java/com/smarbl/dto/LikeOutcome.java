@@ -0,0 +1,25 @@
+package com.smarbl.dto;
+
+/**
+ * Outcome of one like in a batch like request.
+ */
+public enum LikeOutcome {
+
+	/** The like was inserted. */
+	CREATED,
+
+	/** The user had already liked the post, or the pair appeared earlier in the batch. */
+	DUPLICATE,
+
+	/** The user is the author of the post. */
+	SELF_LIKE,
+
+	/** The post does not exist. */
+	MISSING_POST,
+
+	/** The user does not exist. */
+	MISSING_USER,
+
+	/** The item was null. */
+	INVALID
+}
@@ -0,0 +1,90 @@
+package com.smarbl.dto;
+
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * DTO for returning the outcome of one post in a batch post request.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PostBatchResultDTO {
+
+	private int index;
+	private UUID postId;
+	private PostOutcome outcome;
+	private String message;
+
+	// Default constructor
+	public PostBatchResultDTO() {
+	}
+
+	public PostBatchResultDTO(int index, UUID postId, PostOutcome outcome, String message) {
+		this.index = index;
+		this.postId = postId;
+		this.outcome = outcome;
+		this.message = message;
+	}
+
+	/**
+	 * @return the position of the post in the request
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * @return the postId, null unless the post was created
+	 */
+	public UUID getPostId() {
+		return postId;
+	}
+
+	/**
+	 * @return the outcome
+	 */
+	public PostOutcome getOutcome() {
+		return outcome;
+	}
+
+	/**
+	 * @return why the post was not created, null if it was
+	 */
+	public String getMessage() {
+		return message;
+	}
+
+	/**
+	 * @param index the index to set
+	 */
+	public void setIndex(int index) {
+		this.index = index;
+	}
+
+	/**
+	 * @param postId the postId to set
+	 */
+	public void setPostId(UUID postId) {
+		this.postId = postId;
+	}
+
+	/**
+	 * @param outcome the outcome to set
+	 */
+	public void setOutcome(PostOutcome outcome) {
+		this.outcome = outcome;
+	}
+
+	/**
+	 * @param message the message to set
+	 */
+	public void setMessage(String message) {
+		this.message = message;
+	}
+
+	@Override
+	public String toString() {
+		return "PostBatchResultDTO{" + "index=" + index + ", postId=" + postId + ", outcome=" + outcome
+				+ ", message='" + message + '\'' + '}';
+	}
+}
@@ -2,8 +2,12 @@ package com.smarbl.dto;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import java.time.Instant;
 import java.util.UUID;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 public class PostDTO {
 
 	/***
@@ -23,6 +27,17 @@ public class PostDTO {
 
 	private String userName; // Simplified, avoid complex user data
 
+	// Filled only by the feed; ignored when creating a post
+	@JsonProperty(access = JsonProperty.Access.READ_ONLY)
+	private Instant createdAt;
+
+	@JsonProperty(access = JsonProperty.Access.READ_ONLY)
+	private Long likeCount;
+
+	// Entity version behind the ETag; set only by getPostById, never serialized
+	@JsonIgnore
+	private Long version;
+
 	// Default constructor
 	public PostDTO() {
 	}
@@ -43,6 +58,12 @@ public class PostDTO {
 		this.userName = userName;
 	}
 
+	// Constructor for a post and its author only
+	public PostDTO(UUID postId, UUID userId) {
+		this.postId = postId;
+		this.userId = userId;
+	}
+
 	// Ensure this constructor exists explicitly
 	public PostDTO(UUID postId, String postTitle, String postContent, UUID userId) {
 		this.postId = postId;
@@ -51,6 +72,15 @@ public class PostDTO {
 		this.setUserId(userId);
 	}
 
+	// Constructor for feed rows: post, author name and like count from one joined query
+	public PostDTO(UUID postId, String postTitle, String postContent, UUID userId, String userName,
+			Instant createdAt, long likeCount) {
+		this(postId, postTitle, postContent, userId);
+		this.userName = userName;
+		this.createdAt = createdAt;
+		this.likeCount = likeCount;
+	}
+
 	// Getters and Setters
 	public UUID getPostId() {
 		return postId;
@@ -98,6 +128,48 @@ public class PostDTO {
 		this.userId = userId;
 	}
 
+	/**
+	 * @return the createdAt
+	 */
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	/**
+	 * @param createdAt the createdAt to set
+	 */
+	public void setCreatedAt(Instant createdAt) {
+		this.createdAt = createdAt;
+	}
+
+	/**
+	 * @return the likeCount
+	 */
+	public Long getLikeCount() {
+		return likeCount;
+	}
+
+	/**
+	 * @param likeCount the likeCount to set
+	 */
+	public void setLikeCount(Long likeCount) {
+		this.likeCount = likeCount;
+	}
+
+	/**
+	 * @return the version
+	 */
+	public Long getVersion() {
+		return version;
+	}
+
+	/**
+	 * @param version the version to set
+	 */
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
 	@Override
 	public String toString() {
 		return "PostDTO{" + "postId=" + postId + ", postTitle='" + postTitle + '\'' + ", postContent='" + postContent
@@ -0,0 +1,19 @@
+package com.smarbl.dto;
+
+/**
+ * Outcome of one post in a batch post request.
+ */
+public enum PostOutcome {
+
+	/** The post was inserted. */
+	CREATED,
+
+	/** The post failed validation, e.g. a blank title or a missing userId. */
+	INVALID,
+
+	/** The user does not exist. */
+	MISSING_USER,
+
+	/** The chunk holding the post could not be written; nothing in it was created. */
+	FAILED
+}
@@ -0,0 +1,65 @@
+package com.smarbl.dto;
+
+import java.util.UUID;
+
+/**
+ * DTO for one post matching a search, with its BM25 relevance score.
+ */
+public class PostSearchHitDTO {
+
+	private UUID postId;
+	private String postTitle;
+	private float score;
+
+	// Default constructor
+	public PostSearchHitDTO() {
+	}
+
+	public PostSearchHitDTO(UUID postId, String postTitle, float score) {
+		this.postId = postId;
+		this.postTitle = postTitle;
+		this.score = score;
+	}
+
+	/**
+	 * @return the postId
+	 */
+	public UUID getPostId() {
+		return postId;
+	}
+
+	/**
+	 * @return the postTitle
+	 */
+	public String getPostTitle() {
+		return postTitle;
+	}
+
+	/**
+	 * @return the relevance score, higher is better
+	 */
+	public float getScore() {
+		return score;
+	}
+
+	/**
+	 * @param postId the postId to set
+	 */
+	public void setPostId(UUID postId) {
+		this.postId = postId;
+	}
+
+	/**
+	 * @param postTitle the postTitle to set
+	 */
+	public void setPostTitle(String postTitle) {
+		this.postTitle = postTitle;
+	}
+
+	/**
+	 * @param score the score to set
+	 */
+	public void setScore(float score) {
+		this.score = score;
+	}
+}
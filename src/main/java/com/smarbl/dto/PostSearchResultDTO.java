@@ -0,0 +1,49 @@
+package com.smarbl.dto;
+
+import java.util.List;
+
+/**
+ * DTO for one page of post search results.
+ */
+public class PostSearchResultDTO {
+
+	private long totalHits;
+	private List<PostSearchHitDTO> hits;
+
+	// Default constructor
+	public PostSearchResultDTO() {
+	}
+
+	public PostSearchResultDTO(long totalHits, List<PostSearchHitDTO> hits) {
+		this.totalHits = totalHits;
+		this.hits = hits;
+	}
+
+	/**
+	 * @return the number of posts matching the query
+	 */
+	public long getTotalHits() {
+		return totalHits;
+	}
+
+	/**
+	 * @return the hits of the requested page, best first
+	 */
+	public List<PostSearchHitDTO> getHits() {
+		return hits;
+	}
+
+	/**
+	 * @param totalHits the totalHits to set
+	 */
+	public void setTotalHits(long totalHits) {
+		this.totalHits = totalHits;
+	}
+
+	/**
+	 * @param hits the hits to set
+	 */
+	public void setHits(List<PostSearchHitDTO> hits) {
+		this.hits = hits;
+	}
+}
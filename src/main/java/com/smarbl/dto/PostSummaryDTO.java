@@ -0,0 +1,66 @@
+package com.smarbl.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Lightweight DTO for listing posts: no content and no author details.
+ */
+public class PostSummaryDTO {
+
+	private UUID postId;
+	private String postTitle;
+	private Instant createdAt;
+
+	// Default constructor
+	public PostSummaryDTO() {
+	}
+
+	public PostSummaryDTO(UUID postId, String postTitle, Instant createdAt) {
+		this.postId = postId;
+		this.postTitle = postTitle;
+		this.createdAt = createdAt;
+	}
+
+	/**
+	 * @return the postId
+	 */
+	public UUID getPostId() {
+		return postId;
+	}
+
+	/**
+	 * @return the postTitle
+	 */
+	public String getPostTitle() {
+		return postTitle;
+	}
+
+	/**
+	 * @return the createdAt
+	 */
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	/**
+	 * @param postId the postId to set
+	 */
+	public void setPostId(UUID postId) {
+		this.postId = postId;
+	}
+
+	/**
+	 * @param postTitle the postTitle to set
+	 */
+	public void setPostTitle(String postTitle) {
+		this.postTitle = postTitle;
+	}
+
+	/**
+	 * @param createdAt the createdAt to set
+	 */
+	public void setCreatedAt(Instant createdAt) {
+		this.createdAt = createdAt;
+	}
+}
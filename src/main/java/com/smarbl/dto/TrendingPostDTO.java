@@ -0,0 +1,49 @@
+package com.smarbl.dto;
+
+import java.util.UUID;
+
+/**
+ * DTO for a trending post and its time-decayed like score.
+ */
+public class TrendingPostDTO {
+
+	private UUID postId;
+	private double score;
+
+	// Default constructor
+	public TrendingPostDTO() {
+	}
+
+	public TrendingPostDTO(UUID postId, double score) {
+		this.postId = postId;
+		this.score = score;
+	}
+
+	/**
+	 * @return the postId
+	 */
+	public UUID getPostId() {
+		return postId;
+	}
+
+	/**
+	 * @return the estimated number of likes, each weighted by how recent it is
+	 */
+	public double getScore() {
+		return score;
+	}
+
+	/**
+	 * @param postId the postId to set
+	 */
+	public void setPostId(UUID postId) {
+		this.postId = postId;
+	}
+
+	/**
+	 * @param score the score to set
+	 */
+	public void setScore(double score) {
+		this.score = score;
+	}
+}
@@ -26,6 +26,9 @@ public class UserDTO {
     @JsonIgnore  // Prevent password from being exposed in API responses
     private String userPassword;
 
+    @JsonIgnore  // Entity version behind the ETag; set only by getUserById
+    private Long version;
+
     // Default constructor
     public UserDTO() {
     }
@@ -76,6 +79,20 @@ public class UserDTO {
 		this.userPassword = userPassword;
 	}
 
+	/**
+	 * @return the version
+	 */
+	public Long getVersion() {
+		return version;
+	}
+
+	/**
+	 * @param version the version to set
+	 */
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
 	@Override
     public String toString() {
         return "UserDTO{" +
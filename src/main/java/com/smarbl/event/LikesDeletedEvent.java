@@ -0,0 +1,31 @@
+package com.smarbl.event;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Published when likes are deleted from posts that remain, e.g. the likes of a
+ * deleted user. Each post ID stands for one like removed from that post.
+ * Listeners that keep in-memory state should react after the transaction commits.
+ */
+public class LikesDeletedEvent {
+
+    private final List<UUID> postIds;
+
+    public LikesDeletedEvent(Collection<UUID> postIds) {
+        this.postIds = List.copyOf(postIds);
+    }
+
+    /**
+     * @return the IDs of the posts that lost one like each
+     */
+    public List<UUID> getPostIds() {
+        return postIds;
+    }
+
+    @Override
+    public String toString() {
+        return "LikesDeletedEvent{" + "postIds=" + postIds.size() + '}';
+    }
+}
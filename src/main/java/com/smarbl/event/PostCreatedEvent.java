@@ -0,0 +1,56 @@
+package com.smarbl.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published by the post service for every post it creates.
+ * Listeners that keep in-memory state should react after the transaction commits.
+ */
+public class PostCreatedEvent {
+
+    private final UUID postId;
+    private final String postTitle;
+    private final String postContent;
+    private final Instant createdAt;
+
+    public PostCreatedEvent(UUID postId, String postTitle, String postContent, Instant createdAt) {
+        this.postId = postId;
+        this.postTitle = postTitle;
+        this.postContent = postContent;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * @return the ID of the new post
+     */
+    public UUID getPostId() {
+        return postId;
+    }
+
+    /**
+     * @return the title of the new post
+     */
+    public String getPostTitle() {
+        return postTitle;
+    }
+
+    /**
+     * @return the content of the new post
+     */
+    public String getPostContent() {
+        return postContent;
+    }
+
+    /**
+     * @return when the post was created
+     */
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "PostCreatedEvent{" + "postId=" + postId + ", createdAt=" + createdAt + '}';
+    }
+}
@@ -0,0 +1,28 @@
+package com.smarbl.event;
+
+import java.util.UUID;
+
+/**
+ * Published by the post service for every post it deletes.
+ * Listeners that keep in-memory state should react after the transaction commits.
+ */
+public class PostDeletedEvent {
+
+    private final UUID postId;
+
+    public PostDeletedEvent(UUID postId) {
+        this.postId = postId;
+    }
+
+    /**
+     * @return the ID of the deleted post
+     */
+    public UUID getPostId() {
+        return postId;
+    }
+
+    @Override
+    public String toString() {
+        return "PostDeletedEvent{" + "postId=" + postId + '}';
+    }
+}
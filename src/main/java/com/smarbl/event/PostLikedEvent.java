@@ -0,0 +1,37 @@
+package com.smarbl.event;
+
+import java.util.UUID;
+
+/**
+ * Published by the like service for every like it inserts.
+ * Listeners that keep in-memory state should react after the transaction commits.
+ */
+public class PostLikedEvent {
+
+    private final UUID postId;
+    private final UUID userId;
+
+    public PostLikedEvent(UUID postId, UUID userId) {
+        this.postId = postId;
+        this.userId = userId;
+    }
+
+    /**
+     * @return the ID of the liked post
+     */
+    public UUID getPostId() {
+        return postId;
+    }
+
+    /**
+     * @return the ID of the user who liked the post
+     */
+    public UUID getUserId() {
+        return userId;
+    }
+
+    @Override
+    public String toString() {
+        return "PostLikedEvent{" + "postId=" + postId + ", userId=" + userId + '}';
+    }
+}
@@ -0,0 +1,37 @@
+package com.smarbl.event;
+
+import java.util.UUID;
+
+/**
+ * Published by the user service for every user it deletes.
+ * Listeners that keep in-memory state should react after the transaction commits.
+ */
+public class UserDeletedEvent {
+
+    private final UUID userId;
+    private final String userEmail;
+
+    public UserDeletedEvent(UUID userId, String userEmail) {
+        this.userId = userId;
+        this.userEmail = userEmail;
+    }
+
+    /**
+     * @return the ID of the deleted user
+     */
+    public UUID getUserId() {
+        return userId;
+    }
+
+    /**
+     * @return the email of the deleted user
+     */
+    public String getUserEmail() {
+        return userEmail;
+    }
+
+    @Override
+    public String toString() {
+        return "UserDeletedEvent{" + "userId=" + userId + '}';
+    }
+}
@@ -0,0 +1,37 @@
+package com.smarbl.event;
+
+import java.util.UUID;
+
+/**
+ * Published by the user services for every user they register or create.
+ * Listeners that keep in-memory state should react after the transaction commits.
+ */
+public class UserRegisteredEvent {
+
+    private final UUID userId;
+    private final String userEmail;
+
+    public UserRegisteredEvent(UUID userId, String userEmail) {
+        this.userId = userId;
+        this.userEmail = userEmail;
+    }
+
+    /**
+     * @return the ID of the new user
+     */
+    public UUID getUserId() {
+        return userId;
+    }
+
+    /**
+     * @return the email of the new user
+     */
+    public String getUserEmail() {
+        return userEmail;
+    }
+
+    @Override
+    public String toString() {
+        return "UserRegisteredEvent{" + "userId=" + userId + '}';
+    }
+}
@@ -0,0 +1,65 @@
+package com.smarbl.event;
+
+import java.util.UUID;
+
+/**
+ * Published by the user service for every user it updates.
+ * Listeners that keep in-memory state should react after the transaction commits.
+ */
+public class UserUpdatedEvent {
+
+    private final UUID userId;
+    private final String previousEmail;
+    private final String userEmail;
+    private final boolean passwordChanged;
+    private final long version;
+
+    public UserUpdatedEvent(UUID userId, String previousEmail, String userEmail, boolean passwordChanged,
+                            long version) {
+        this.userId = userId;
+        this.previousEmail = previousEmail;
+        this.userEmail = userEmail;
+        this.passwordChanged = passwordChanged;
+        this.version = version;
+    }
+
+    /**
+     * @return the ID of the updated user
+     */
+    public UUID getUserId() {
+        return userId;
+    }
+
+    /**
+     * @return the email the user had before the update
+     */
+    public String getPreviousEmail() {
+        return previousEmail;
+    }
+
+    /**
+     * @return the email the user has after the update
+     */
+    public String getUserEmail() {
+        return userEmail;
+    }
+
+    /**
+     * @return whether the update replaced the user's password
+     */
+    public boolean isPasswordChanged() {
+        return passwordChanged;
+    }
+
+    /**
+     * @return the entity version the update committed
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return "UserUpdatedEvent{" + "userId=" + userId + '}';
+    }
+}
@@ -1,10 +1,13 @@
 package com.smarbl.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 
+import jakarta.servlet.http.HttpServletResponse;
+
 /**
  * Global exception handler for handling various exceptions.
  */
@@ -34,13 +37,46 @@ public class GlobalExceptionHandler {
     }
 
     /**
-     * Handles all other exceptions.
+     * Handles requests shed because a bounded queue or pool is full.
+     *
+     * @param ex the exception
+     * @return a response entity with the error message, a Retry-After header and SERVICE_UNAVAILABLE status
+     */
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<String> handleServiceBusyException(ServiceBusyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ex.getMessage());
+    }
+
+    /**
+     * Handles requests refused because the client has made too many attempts.
      *
      * @param ex the exception
+     * @return a response entity with the error message, a Retry-After header and TOO_MANY_REQUESTS status
+     */
+    @ExceptionHandler(RateLimitedException.class)
+    public ResponseEntity<String> handleRateLimitedException(RateLimitedException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ex.getMessage());
+    }
+
+    /**
+     * Handles all other exceptions. When part of the response has already been sent, as with a streamed
+     * export that fails part way, the exception is rethrown so the container aborts the connection rather
+     * than ending the body cleanly.
+     *
+     * @param ex       the exception
+     * @param response the response the error belongs to
      * @return a response entity with a generic error message and INTERNAL_SERVER_ERROR status
+     * @throws Exception the exception, if the response is already committed
      */
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<String> handleGenericException(Exception ex) {
+    public ResponseEntity<String> handleGenericException(Exception ex, HttpServletResponse response) throws Exception {
+        if (response.isCommitted()) {
+            throw ex;
+        }
         return new ResponseEntity<>("An unexpected error occurred", HttpStatus.INTERNAL_SERVER_ERROR);
     }
 }
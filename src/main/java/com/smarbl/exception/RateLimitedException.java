@@ -0,0 +1,28 @@
+package com.smarbl.exception;
+
+/**
+ * Exception thrown when a client has used up its allowance of attempts and must
+ * wait before trying again.
+ */
+public class RateLimitedException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long retryAfterSeconds;
+
+	/**
+	 * @param message           the detail message
+	 * @param retryAfterSeconds how long the client must wait before the next attempt is allowed
+	 */
+	public RateLimitedException(String message, long retryAfterSeconds) {
+		super(message);
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+
+	/**
+	 * @return how long the client must wait before the next attempt is allowed, in seconds
+	 */
+	public long getRetryAfterSeconds() {
+		return retryAfterSeconds;
+	}
+}
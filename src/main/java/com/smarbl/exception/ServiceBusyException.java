@@ -0,0 +1,28 @@
+package com.smarbl.exception;
+
+/**
+ * Exception thrown when a bounded queue or pool is full and the request is shed
+ * instead of waiting.
+ */
+public class ServiceBusyException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long retryAfterSeconds;
+
+	/**
+	 * @param message           the detail message
+	 * @param retryAfterSeconds how long the client should wait before retrying
+	 */
+	public ServiceBusyException(String message, long retryAfterSeconds) {
+		super(message);
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+
+	/**
+	 * @return how long the client should wait before retrying, in seconds
+	 */
+	public long getRetryAfterSeconds() {
+		return retryAfterSeconds;
+	}
+}
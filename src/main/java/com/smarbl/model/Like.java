@@ -1,10 +1,17 @@
 package com.smarbl.model;
 
 import jakarta.persistence.*;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
 import java.util.UUID;
 
 @Entity
-@Table(name = "like_tbl")
+@Table(name = "like_tbl", uniqueConstraints = @UniqueConstraint(name = "uk_like_post_user",
+        columnNames = {"post_id", "user_id"}),
+        indexes = { @Index(name = "idx_like_user_post", columnList = "user_id, post_id"),
+                @Index(name = "idx_like_created", columnList = "created_at") })
 public class Like {
 
     @Id
@@ -12,14 +19,22 @@ public class Like {
     @Column(name = "like_id", updatable = false, nullable = false)
     private UUID likeId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "post_id", nullable = false)
     private Post post;
 
+    /**
+     * When the like was given; set by the database for likes inserted with
+     * LikeRepository.insertLikeIfAllowed.
+     */
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
 	/**
 	 * @return the likeId
 	 */
@@ -41,6 +56,13 @@ public class Like {
 		return post;
 	}
 
+	/**
+	 * @return the createdAt
+	 */
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
 	/**
 	 * @param likeId the likeId to set
 	 */
@@ -62,5 +84,12 @@ public class Like {
 		this.post = post;
 	}
 
+	/**
+	 * @param createdAt the createdAt to set
+	 */
+	public void setCreatedAt(Instant createdAt) {
+		this.createdAt = createdAt;
+	}
+
     // Getters and Setters
 }
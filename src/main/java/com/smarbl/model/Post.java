@@ -6,25 +6,38 @@ package com.smarbl.model;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
 
+import jakarta.persistence.Basic;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+
+import java.time.Instant;
 import java.util.UUID;
 import java.util.Set;
 
 @Entity
-@Table(name = "post_tbl")
+@Table(name = "post_tbl", indexes = {
+		@Index(name = "idx_post_user_created", columnList = "user_id, created_at, post_id"),
+		@Index(name = "idx_post_created", columnList = "created_at, post_id") })
 public class Post {
 
+	/**
+	 * Time-ordered, so new posts are appended to the primary key index.
+	 */
 	@Id
-	@GeneratedValue(strategy = GenerationType.AUTO)
+	@GeneratedValue(generator = "time-ordered-uuid")
+	@GenericGenerator(name = "time-ordered-uuid", type = TimeOrderedUuidGenerator.class)
 	@Column(name = "post_id", updatable = false, nullable = false)
 	private UUID postId;
 
@@ -33,17 +46,47 @@ public class Post {
 	@Column(name = "post_title", nullable = false)
 	private String postTitle;
 
+	/**
+	 * The post body, loaded only when first read; queries for ids, titles or
+	 * counts never fetch it. Requires the bytecode enhancement configured in pom.xml.
+	 */
 	@NotBlank(message = "Content cannot be blank")
+	@Basic(fetch = FetchType.LAZY)
 	@Column(name = "post_content", nullable = false)
 	private String postContent;
 
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "user_id", nullable = false)
 	private User user;
 
 	@OneToMany(mappedBy = "post")
 	private Set<Like> likes;
 
+	/**
+	 * Denormalized number of likes, incremented in the same transaction as each
+	 * like insert and corrected by LikeCountReconciler, or flushed by LikeCounterStore
+	 * in write-behind counter mode.
+	 */
+	@Column(name = "like_count", nullable = false)
+	private long likeCount;
+
+	/**
+	 * When the post was created; with postId it orders a user's posts for keyset
+	 * pagination over idx_post_user_created.
+	 */
+	@CreationTimestamp
+	@Column(name = "created_at", nullable = false, updatable = false)
+	private Instant createdAt;
+
+	/**
+	 * Incremented by Hibernate on every update of the entity; with postId it forms
+	 * the ETag of the post. Like count updates are bulk updates and leave it alone,
+	 * as the like count is not part of the post representation.
+	 */
+	@Version
+	@Column(name = "version", nullable = false)
+	private long version;
+
 	/**
 	 * @return the postId
 	 */
@@ -79,6 +122,27 @@ public class Post {
 		return likes;
 	}
 
+	/**
+	 * @return the likeCount
+	 */
+	public long getLikeCount() {
+		return likeCount;
+	}
+
+	/**
+	 * @return the createdAt
+	 */
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	/**
+	 * @return the version
+	 */
+	public long getVersion() {
+		return version;
+	}
+
 	/**
 	 * @param postId the postId to set
 	 */
@@ -114,9 +178,31 @@ public class Post {
 		this.likes = likes;
 	}
 
+	/**
+	 * @param likeCount the likeCount to set
+	 */
+	public void setLikeCount(long likeCount) {
+		this.likeCount = likeCount;
+	}
+
+	/**
+	 * @param createdAt the createdAt to set
+	 */
+	public void setCreatedAt(Instant createdAt) {
+		this.createdAt = createdAt;
+	}
+
+	/**
+	 * @param version the version to set
+	 */
+	public void setVersion(long version) {
+		this.version = version;
+	}
+
 	@Override
 	public String toString() {
-		return "Post [postId=" + postId + ", postTitle=" + postTitle + ", postContent=" + postContent + ", user=" + user
+		// postContent is left out: it is lazy, and logging a post must not load it
+		return "Post [postId=" + postId + ", postTitle=" + postTitle + ", user=" + user
 				+ ", likes=" + likes + "]";
 	}
 }
@@ -0,0 +1,21 @@
+package com.smarbl.model;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import com.smarbl.util.TimeOrderedUuid;
+
+/**
+ * Hibernate identifier generator for {@link TimeOrderedUuid} IDs. IDs are generated
+ * in memory when an entity is persisted, so inserts need no round trip and can be
+ * JDBC-batched.
+ */
+public class TimeOrderedUuidGenerator implements IdentifierGenerator {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return TimeOrderedUuid.next();
+    }
+}
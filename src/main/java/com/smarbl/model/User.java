@@ -20,6 +20,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -47,6 +48,13 @@ public class User {
     @Column(name = "user_password", nullable = false)
     private String userPassword;
 
+    /**
+     * Incremented by Hibernate on every update; with userId it forms the ETag of the user.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     // Initialize Sets to avoid NullPointerExceptions
     @OneToMany(mappedBy = "user", cascade = {CascadeType.ALL}, orphanRemoval = true)
     private Set<Post> posts = new HashSet<>();   
@@ -87,6 +95,14 @@ public class User {
         this.userPassword = userPassword;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public Set<Post> getPosts() {
         return posts;
     }
@@ -1,13 +1,31 @@
 package com.smarbl.repository;
 
+import com.smarbl.dto.LikeCountDTO;
+import com.smarbl.dto.LikeDTO;
+import com.smarbl.dto.UserDTO;
 import com.smarbl.model.Like;
 import com.smarbl.model.Post;
 import com.smarbl.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  * Repository interface for Like entity.
@@ -15,11 +33,51 @@ import java.util.UUID;
 @Repository
 public interface LikeRepository extends JpaRepository<Like, UUID> {
 
+    /**
+     * Name of the unique constraint on like_tbl(post_id, user_id).
+     */
+    String POST_USER_UNIQUE_CONSTRAINT = "uk_like_post_user";
+
+    /**
+     * Inserts a like in one statement, but only if the post and the user exist and
+     * the user is not the author of the post. A second like by the same user is
+     * rejected by the unique constraint on (post_id, user_id).
+     *
+     * @param likeId the ID of the new like
+     * @param postId the ID of the post to like
+     * @param userId the ID of the user liking the post
+     * @return 1 if the like was inserted, 0 if the post or user is missing or it is a self-like
+     */
+    @Modifying
+    @Query(value = "INSERT INTO like_tbl (like_id, post_id, user_id, created_at) "
+            + "SELECT :likeId, p.post_id, u.user_id, CURRENT_TIMESTAMP FROM post_tbl p, user_tbl u "
+            + "WHERE p.post_id = :postId AND u.user_id = :userId AND p.user_id <> u.user_id", nativeQuery = true)
+    int insertLikeIfAllowed(@Param("likeId") UUID likeId, @Param("postId") UUID postId,
+                            @Param("userId") UUID userId);
+
     /**
      * Checks if a user has already liked a post.
      */
     boolean existsByPostAndUser(Post post, User user);
 
+    /**
+     * Checks if a user has already liked a post, by IDs only.
+     */
+    @Query("SELECT COUNT(l) > 0 FROM Like l WHERE l.post.postId = :postId AND l.user.userId = :userId")
+    boolean existsByPostIdAndUserId(@Param("postId") UUID postId, @Param("userId") UUID userId);
+
+    /**
+     * Finds the existing likes among the given posts and users, as (post, user) pairs.
+     *
+     * @param postIds the post IDs
+     * @param userIds the user IDs
+     * @return LikeDTOs holding only postId and userId
+     */
+    @Query("SELECT new com.smarbl.dto.LikeDTO(l.post.postId, l.user.userId) FROM Like l "
+            + "WHERE l.post.postId IN :postIds AND l.user.userId IN :userIds")
+    List<LikeDTO> findPostUserPairs(@Param("postIds") Collection<UUID> postIds,
+                                    @Param("userIds") Collection<UUID> userIds);
+
     /**
      * Counts the number of likes for a given post.
      */
@@ -30,8 +88,155 @@ public interface LikeRepository extends JpaRepository<Like, UUID> {
      */
     List<Like> findByPost(Post post);
 
+    /**
+     * Finds the first users who liked a post, in user ID order. The like_tbl side is
+     * answered from the uk_like_post_user (post_id, user_id) index alone, but the
+     * query is not covered as a whole: each returned row still costs a primary key
+     * lookup in user_tbl for the name and email.
+     *
+     * @param postId   the post ID
+     * @param pageable the page size; the page number must be 0
+     * @return UserDTOs projected straight from user_tbl
+     */
+    @Query("SELECT new com.smarbl.dto.UserDTO(u.userId, u.userName, u.userEmail) FROM Like l JOIN l.user u "
+            + "WHERE l.post.postId = :postId ORDER BY l.user.userId")
+    List<UserDTO> findLikersOrderByUserId(@Param("postId") UUID postId, Pageable pageable);
+
+    /**
+     * Finds the users who liked a post after the given user ID, in user ID order.
+     * Uses the same index range scan and per-row user_tbl lookup as
+     * {@link #findLikersOrderByUserId}.
+     *
+     * @param postId      the post ID
+     * @param afterUserId the last user ID of the previous page
+     * @param pageable    the page size; the page number must be 0
+     * @return UserDTOs projected straight from user_tbl
+     */
+    @Query("SELECT new com.smarbl.dto.UserDTO(u.userId, u.userName, u.userEmail) FROM Like l JOIN l.user u "
+            + "WHERE l.post.postId = :postId AND l.user.userId > :afterUserId ORDER BY l.user.userId")
+    List<UserDTO> findLikersAfterUserId(@Param("postId") UUID postId, @Param("afterUserId") UUID afterUserId,
+                                        Pageable pageable);
+
+    /**
+     * Finds the IDs of up to one page of likes on a post, for chunked deletion.
+     *
+     * @param postId   the post ID
+     * @param pageable the chunk size; the page number must be 0
+     * @return like IDs in no particular order
+     */
+    @Query("SELECT l.likeId FROM Like l WHERE l.post.postId = :postId")
+    List<UUID> findLikeIdsByPostId(@Param("postId") UUID postId, Pageable pageable);
+
+    /**
+     * Finds the IDs of up to one page of likes on the posts of a user, for chunked deletion.
+     *
+     * @param userId   the ID of the posts' author
+     * @param pageable the chunk size; the page number must be 0
+     * @return like IDs in no particular order
+     */
+    @Query("SELECT l.likeId FROM Like l WHERE l.post.user.userId = :userId")
+    List<UUID> findLikeIdsOnPostsOfUser(@Param("userId") UUID userId, Pageable pageable);
+
+    /**
+     * Finds up to one page of the posts a user has liked, for chunked deletion. A
+     * user likes a post at most once, so each ID stands for exactly one like.
+     *
+     * @param userId   the ID of the user who liked the posts
+     * @param pageable the chunk size; the page number must be 0
+     * @return post IDs read from idx_like_user_post
+     */
+    @Query("SELECT l.post.postId FROM Like l WHERE l.user.userId = :userId")
+    List<UUID> findLikedPostIdsByUserId(@Param("userId") UUID userId, Pageable pageable);
+
+    /**
+     * Deletes likes by ID without loading them.
+     *
+     * @param likeIds the like IDs
+     * @return number of likes deleted
+     */
+    @Modifying
+    @Query("DELETE FROM Like l WHERE l.likeId IN :likeIds")
+    int deleteByLikeIds(@Param("likeIds") Collection<UUID> likeIds);
+
+    /**
+     * Deletes all likes on the given posts without loading them.
+     *
+     * @param postIds the post IDs
+     * @return number of likes deleted
+     */
+    @Modifying
+    @Query("DELETE FROM Like l WHERE l.post.postId IN :postIds")
+    int deleteByPostIds(@Param("postIds") Collection<UUID> postIds);
+
+    /**
+     * Locks a user's likes on the given posts until the transaction ends and
+     * returns the posts they are on. A like deleted by a concurrent transaction is
+     * not returned once that transaction has committed, and cannot be deleted by
+     * another transaction while it is locked.
+     *
+     * @param userId  the ID of the user who liked the posts
+     * @param postIds the post IDs
+     * @return the IDs of the posts that still have a like by the user
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l.post.postId FROM Like l WHERE l.user.userId = :userId AND l.post.postId IN :postIds")
+    List<UUID> lockLikedPostIds(@Param("userId") UUID userId, @Param("postIds") Collection<UUID> postIds);
+
+    /**
+     * Deletes a user's likes on the given posts without loading them.
+     *
+     * @param userId  the ID of the user who liked the posts
+     * @param postIds the post IDs
+     * @return number of likes deleted
+     */
+    @Modifying
+    @Query("DELETE FROM Like l WHERE l.user.userId = :userId AND l.post.postId IN :postIds")
+    int deleteByUserIdAndPostIds(@Param("userId") UUID userId, @Param("postIds") Collection<UUID> postIds);
+
     /**
      * Finds the count of likes for a list of posts.
      */
     List<Like> findByPostIn(List<Post> posts);
+
+    /**
+     * Counts the likes of every given post in a single grouped statement.
+     * Posts without likes produce no row.
+     *
+     * @param postIds the IDs of the posts to count likes for
+     * @return one LikeCountDTO per post that has at least one like
+     */
+    @Query("SELECT new com.smarbl.dto.LikeCountDTO(l.post.postId, COUNT(l)) FROM Like l "
+            + "WHERE l.post.postId IN :postIds GROUP BY l.post.postId")
+    List<LikeCountDTO> countLikesGroupedByPost(@Param("postIds") Collection<UUID> postIds);
+
+    /**
+     * Counts the likes of every post in a single grouped statement, for rebuilding
+     * the write-behind like counters. Posts without likes produce no row.
+     *
+     * @return one LikeCountDTO per post that has at least one like
+     */
+    @Query("SELECT new com.smarbl.dto.LikeCountDTO(l.post.postId, COUNT(l)) FROM Like l GROUP BY l.post.postId")
+    List<LikeCountDTO> countAllLikesGroupedByPost();
+
+    /**
+     * Streams the (post, user) pair of every like. Must be consumed inside a transaction.
+     *
+     * @return a stream of LikeDTO holding only postId and userId
+     */
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true") })
+    @Query("SELECT new com.smarbl.dto.LikeDTO(l.post.postId, l.user.userId) FROM Like l")
+    Stream<LikeDTO> streamAllPostUserPairs();
+
+    /**
+     * Streams the likes given after an instant, oldest first, for export. Rows are
+     * read forward-only in fetch-size batches and never enter the persistence
+     * context. Must be consumed inside a transaction and closed.
+     *
+     * @param since only likes created after this instant are returned
+     * @return LikeDTOs with likeId, postId, userId and createdAt, read in idx_like_created order
+     */
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true") })
+    @Query("SELECT new com.smarbl.dto.LikeDTO(l.likeId, l.post.postId, l.user.userId, l.createdAt) FROM Like l "
+            + "WHERE l.createdAt > :since ORDER BY l.createdAt")
+    Stream<LikeDTO> streamLikesCreatedAfter(@Param("since") Instant since);
 }
@@ -1,12 +1,29 @@
 package com.smarbl.repository;
 
+import com.smarbl.dto.LikeCountDTO;
+import com.smarbl.dto.PostDTO;
+import com.smarbl.dto.PostSummaryDTO;
 import com.smarbl.model.Post;
 import com.smarbl.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import jakarta.persistence.QueryHint;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  * Repository interface for Post entity.
@@ -23,6 +40,225 @@ public interface PostRepository extends JpaRepository<Post, UUID> {
      * @return list of posts
      */
     List<Post> findByUser(User user);
+
+    /**
+     * Finds the newest posts of a user, newest first, as summaries. The user is the
+     * driving row of a left join, so a user without posts yields one row with a null
+     * postId and an unknown user yields no rows at all.
+     *
+     * @param userId   the user ID
+     * @param pageable the page size; the page number must be 0
+     * @return PostSummaryDTOs read from idx_post_user_created
+     */
+    @Query("SELECT new com.smarbl.dto.PostSummaryDTO(p.postId, p.postTitle, p.createdAt) FROM User u "
+            + "LEFT JOIN Post p ON p.user = u WHERE u.userId = :userId ORDER BY p.createdAt DESC, p.postId DESC")
+    List<PostSummaryDTO> findPostSummariesByUser(@Param("userId") UUID userId, Pageable pageable);
+
+    /**
+     * Finds the posts of a user that come after the given keyset position, newest
+     * first, as summaries. Like {@link #findPostSummariesByUser(UUID, Pageable)}, a
+     * user with no further posts yields one row with a null postId.
+     *
+     * @param userId    the user ID
+     * @param createdAt the creation time of the last post of the previous page
+     * @param postId    the ID of the last post of the previous page
+     * @param pageable  the page size; the page number must be 0
+     * @return PostSummaryDTOs read from idx_post_user_created
+     */
+    @Query("SELECT new com.smarbl.dto.PostSummaryDTO(p.postId, p.postTitle, p.createdAt) FROM User u "
+            + "LEFT JOIN Post p ON p.user = u AND (p.createdAt < :createdAt "
+            + "OR (p.createdAt = :createdAt AND p.postId < :postId)) "
+            + "WHERE u.userId = :userId ORDER BY p.createdAt DESC, p.postId DESC")
+    List<PostSummaryDTO> findPostSummariesByUserBefore(@Param("userId") UUID userId,
+                                                       @Param("createdAt") Instant createdAt,
+                                                       @Param("postId") UUID postId, Pageable pageable);
+
+    /**
+     * Finds the newest posts, newest first, as feed rows: post, author name and like
+     * count from one join of post_tbl and user_tbl. The like count is the
+     * denormalized post_tbl.like_count, so like_tbl is not read.
+     *
+     * @param pageable the page size; the page number must be 0
+     * @return PostDTOs with userName, createdAt and likeCount filled
+     */
+    @Query("SELECT new com.smarbl.dto.PostDTO(p.postId, p.postTitle, p.postContent, u.userId, u.userName, "
+            + "p.createdAt, p.likeCount) FROM Post p JOIN p.user u ORDER BY p.createdAt DESC, p.postId DESC")
+    List<PostDTO> findFeed(Pageable pageable);
+
+    /**
+     * Finds the feed rows after the given keyset position, newest first.
+     *
+     * @param createdAt the creation time of the last post of the previous page
+     * @param postId    the ID of the last post of the previous page
+     * @param pageable  the page size; the page number must be 0
+     * @return PostDTOs with userName, createdAt and likeCount filled
+     */
+    @Query("SELECT new com.smarbl.dto.PostDTO(p.postId, p.postTitle, p.postContent, u.userId, u.userName, "
+            + "p.createdAt, p.likeCount) FROM Post p JOIN p.user u "
+            + "WHERE p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.postId < :postId) "
+            + "ORDER BY p.createdAt DESC, p.postId DESC")
+    List<PostDTO> findFeedBefore(@Param("createdAt") Instant createdAt, @Param("postId") UUID postId,
+                                 Pageable pageable);
+
+    /**
+     * Finds the newest posts of one author as feed rows, newest first.
+     *
+     * @param userId   the author's user ID
+     * @param pageable the page size; the page number must be 0
+     * @return PostDTOs with userName, createdAt and likeCount filled
+     */
+    @Query("SELECT new com.smarbl.dto.PostDTO(p.postId, p.postTitle, p.postContent, u.userId, u.userName, "
+            + "p.createdAt, p.likeCount) FROM Post p JOIN p.user u WHERE u.userId = :userId "
+            + "ORDER BY p.createdAt DESC, p.postId DESC")
+    List<PostDTO> findFeedByUser(@Param("userId") UUID userId, Pageable pageable);
+
+    /**
+     * Finds the feed rows of one author after the given keyset position, newest first.
+     *
+     * @param userId    the author's user ID
+     * @param createdAt the creation time of the last post of the previous page
+     * @param postId    the ID of the last post of the previous page
+     * @param pageable  the page size; the page number must be 0
+     * @return PostDTOs with userName, createdAt and likeCount filled
+     */
+    @Query("SELECT new com.smarbl.dto.PostDTO(p.postId, p.postTitle, p.postContent, u.userId, u.userName, "
+            + "p.createdAt, p.likeCount) FROM Post p JOIN p.user u WHERE u.userId = :userId "
+            + "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.postId < :postId)) "
+            + "ORDER BY p.createdAt DESC, p.postId DESC")
+    List<PostDTO> findFeedByUserBefore(@Param("userId") UUID userId, @Param("createdAt") Instant createdAt,
+                                       @Param("postId") UUID postId, Pageable pageable);
+
+    /**
+     * Streams the posts created after the given time, oldest first, with their
+     * content, for (re)building the search index and for export. Rows are read
+     * forward-only in fetch-size batches and never enter the persistence context.
+     * Must be consumed inside a transaction and closed.
+     *
+     * @param since only posts created strictly after this time are returned
+     * @return a stream of PostDTOs with createdAt filled
+     */
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true") })
+    @Query("SELECT new com.smarbl.dto.PostDTO(p.postId, p.postTitle, p.postContent, u.userId, u.userName, "
+            + "p.createdAt, p.likeCount) FROM Post p JOIN p.user u WHERE p.createdAt > :since ORDER BY p.createdAt")
+    Stream<PostDTO> streamPostsCreatedAfter(@Param("since") Instant since);
+
+    /**
+     * Reads the version of a post, without loading the post.
+     *
+     * @param postId the post ID
+     * @return an Optional containing the version if the post exists
+     */
+    @Query("SELECT p.version FROM Post p WHERE p.postId = :postId")
+    Optional<Long> findVersionByPostId(@Param("postId") UUID postId);
+
+    /**
+     * Finds the ID of the user who wrote a post, without loading the post.
+     *
+     * @param postId the post ID
+     * @return an Optional containing the author's ID if the post exists
+     */
+    @Query("SELECT p.user.userId FROM Post p WHERE p.postId = :postId")
+    Optional<UUID> findAuthorIdByPostId(@Param("postId") UUID postId);
+
+    /**
+     * Finds the authors of the given posts, without loading the posts.
+     *
+     * @param postIds the post IDs
+     * @return one PostDTO holding only postId and userId per existing post
+     */
+    @Query("SELECT new com.smarbl.dto.PostDTO(p.postId, p.user.userId) FROM Post p WHERE p.postId IN :postIds")
+    List<PostDTO> findAuthorIdsByPostIds(@Param("postIds") Collection<UUID> postIds);
+
+    /**
+     * Finds the IDs of up to one page of a user's posts, for chunked deletion.
+     *
+     * @param userId   the user ID
+     * @param pageable the chunk size; the page number must be 0
+     * @return post IDs read from idx_post_user_created
+     */
+    @Query("SELECT p.postId FROM Post p WHERE p.user.userId = :userId")
+    List<UUID> findPostIdsByUserId(@Param("userId") UUID userId, Pageable pageable);
+
+    /**
+     * Deletes posts by ID without loading them. Their likes must be deleted first.
+     *
+     * @param postIds the post IDs
+     * @return number of posts deleted
+     */
+    @Modifying
+    @Query("DELETE FROM Post p WHERE p.postId IN :postIds")
+    int deleteByPostIds(@Param("postIds") Collection<UUID> postIds);
+
+    /**
+     * Removes one like from the counter of each given post.
+     *
+     * @param postIds the post IDs
+     * @return number of rows updated
+     */
+    @Modifying
+    @Query("UPDATE Post p SET p.likeCount = p.likeCount - 1 WHERE p.postId IN :postIds")
+    int decrementLikeCounts(@Param("postIds") Collection<UUID> postIds);
+
+    /**
+     * Adds a delta to the like counter of a post.
+     *
+     * @param postId the post ID
+     * @param delta  the number of likes to add
+     * @return number of rows updated (0 if the post no longer exists)
+     */
+    @Modifying
+    @Query("UPDATE Post p SET p.likeCount = p.likeCount + :delta WHERE p.postId = :postId")
+    int incrementLikeCount(@Param("postId") UUID postId, @Param("delta") long delta);
+
+    /**
+     * Sets the like counter of a post, but only if it still holds the expected value.
+     *
+     * @param postId   the post ID
+     * @param expected the counter value read before the likes were counted
+     * @param actual   the recomputed number of likes
+     * @return number of rows updated (0 if the counter changed in the meantime)
+     */
+    @Modifying
+    @Query("UPDATE Post p SET p.likeCount = :actual WHERE p.postId = :postId AND p.likeCount = :expected")
+    int compareAndSetLikeCount(@Param("postId") UUID postId, @Param("expected") long expected,
+                               @Param("actual") long actual);
+
+    /**
+     * Reads the like counters of the given posts by primary key.
+     *
+     * @param postIds the post IDs
+     * @return one LikeCountDTO per existing post
+     */
+    @Query("SELECT new com.smarbl.dto.LikeCountDTO(p.postId, p.likeCount) FROM Post p WHERE p.postId IN :postIds")
+    List<LikeCountDTO> findLikeCountsByPostIds(@Param("postIds") Collection<UUID> postIds);
+
+    /**
+     * Reads the like counters of all posts that have at least one like.
+     *
+     * @return one LikeCountDTO per liked post
+     */
+    @Query("SELECT new com.smarbl.dto.LikeCountDTO(p.postId, p.likeCount) FROM Post p WHERE p.likeCount > 0")
+    List<LikeCountDTO> findAllNonZeroLikeCounts();
+
+    /**
+     * Reads the first chunk of like counters in post ID order.
+     *
+     * @param pageable the chunk size
+     * @return like counters ordered by post ID
+     */
+    @Query("SELECT new com.smarbl.dto.LikeCountDTO(p.postId, p.likeCount) FROM Post p ORDER BY p.postId")
+    List<LikeCountDTO> findLikeCountsOrderByPostId(Pageable pageable);
+
+    /**
+     * Reads the next chunk of like counters after the given post ID.
+     *
+     * @param afterPostId the last post ID of the previous chunk
+     * @param pageable    the chunk size
+     * @return like counters ordered by post ID
+     */
+    @Query("SELECT new com.smarbl.dto.LikeCountDTO(p.postId, p.likeCount) FROM Post p "
+            + "WHERE p.postId > :afterPostId ORDER BY p.postId")
+    List<LikeCountDTO> findLikeCountsAfterPostId(@Param("afterPostId") UUID afterPostId, Pageable pageable);
 }
 
 
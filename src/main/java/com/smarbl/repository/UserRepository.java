@@ -1,11 +1,25 @@
 package com.smarbl.repository;
 
+import com.smarbl.dto.UserDTO;
 import com.smarbl.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import jakarta.persistence.QueryHint;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  * Repository interface for User entity.
@@ -20,6 +34,90 @@ public interface UserRepository extends JpaRepository<User, UUID> {
      * @return an Optional containing the user if found, otherwise empty
      */
     Optional<User> findByUserEmail(String email);
+
+    /**
+     * Reads the version of a user, without loading the user.
+     *
+     * @param userId the user ID
+     * @return an Optional containing the version if the user exists
+     */
+    @Query("SELECT u.version FROM User u WHERE u.userId = :userId")
+    Optional<Long> findVersionByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Reads the email of a user, without loading the user.
+     *
+     * @param userId the user ID
+     * @return an Optional containing the email if the user exists
+     */
+    @Query("SELECT u.userEmail FROM User u WHERE u.userId = :userId")
+    Optional<String> findEmailByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Replaces a user's password hash if it is still the given one, e.g. to rehash
+     * it with the current work factor. A concurrent password change wins.
+     *
+     * @param userId      the user ID
+     * @param currentHash the hash the caller verified against
+     * @param newHash     the new hash
+     * @return number of users updated, 0 if the hash changed in the meantime
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.userPassword = :newHash WHERE u.userId = :userId AND u.userPassword = :currentHash")
+    int updatePasswordHash(@Param("userId") UUID userId, @Param("currentHash") String currentHash,
+                           @Param("newHash") String newHash);
+
+    /**
+     * Deletes a user without loading it or cascading to its posts and likes, which
+     * must be deleted first.
+     *
+     * @param userId the user ID
+     * @return number of users deleted
+     */
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.userId = :userId")
+    int deleteByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Streams all users in user ID order, for export. Rows are read forward-only in fetch-size
+     * batches and never enter the persistence context. Must be consumed inside a
+     * transaction and closed.
+     *
+     * @return UserDTOs projected straight from user_tbl
+     */
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true") })
+    @Query("SELECT new com.smarbl.dto.UserDTO(u.userId, u.userName, u.userEmail) FROM User u ORDER BY u.userId")
+    Stream<UserDTO> streamAllUsers();
+
+    /**
+     * Finds the first page of users in user ID order.
+     *
+     * @param pageable the page size; only the first page is used
+     * @return UserDTOs projected straight from user_tbl
+     */
+    @Query("SELECT new com.smarbl.dto.UserDTO(u.userId, u.userName, u.userEmail) FROM User u ORDER BY u.userId")
+    List<UserDTO> findUsersOrderByUserId(Pageable pageable);
+
+    /**
+     * Finds the users after the given user ID, in user ID order. Seeks on the
+     * primary key, so every page costs the same however deep it is.
+     *
+     * @param afterUserId the last user ID of the previous page
+     * @param pageable    the page size; only the first page is used
+     * @return UserDTOs projected straight from user_tbl
+     */
+    @Query("SELECT new com.smarbl.dto.UserDTO(u.userId, u.userName, u.userEmail) FROM User u "
+            + "WHERE u.userId > :afterUserId ORDER BY u.userId")
+    List<UserDTO> findUsersAfterUserId(@Param("afterUserId") UUID afterUserId, Pageable pageable);
+
+    /**
+     * Returns which of the given user IDs exist.
+     *
+     * @param userIds the user IDs to check
+     * @return the IDs of the existing users
+     */
+    @Query("SELECT u.userId FROM User u WHERE u.userId IN :userIds")
+    List<UUID> findExistingUserIds(@Param("userIds") Collection<UUID> userIds);
 }
 
 
@@ -1,6 +1,7 @@
 package com.smarbl.security.config;
 
 import com.smarbl.security.jwt.JwtRequestFilter;
+import com.smarbl.security.service.CachingUserCache;
 import com.smarbl.security.service.CustomUserDetailsService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -21,10 +22,13 @@ public class SecurityConfig {
 
     private final CustomUserDetailsService customUserDetailsService;
     private final JwtRequestFilter jwtRequestFilter;
+    private final CachingUserCache userCache;
 
-    public SecurityConfig(CustomUserDetailsService customUserDetailsService, JwtRequestFilter jwtRequestFilter) {
+    public SecurityConfig(CustomUserDetailsService customUserDetailsService, JwtRequestFilter jwtRequestFilter,
+                          CachingUserCache userCache) {
         this.customUserDetailsService = customUserDetailsService;
         this.jwtRequestFilter = jwtRequestFilter;
+        this.userCache = userCache;
     }
 
      
@@ -64,8 +68,12 @@ public class SecurityConfig {
     @Bean
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
-        authProvider.setUserDetailsService(customUserDetailsService);
+        // The provider reads the user cache itself, so it loads past it: its retry after a failed password
+        // check on a cached user then reads the current row
+        authProvider.setUserDetailsService(customUserDetailsService::loadUserFromDatabase);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // Same cache as the user details service
+        authProvider.setUserCache(userCache);
         return authProvider;
     }
 
@@ -1,15 +1,25 @@
 package com.smarbl.security.config.contoller;
 
 import com.smarbl.dto.LoginRequestDTO;
+import com.smarbl.exception.InvalidCredentialsException;
+import com.smarbl.exception.RateLimitedException;
+import com.smarbl.exception.ServiceBusyException;
 import com.smarbl.model.User;
 import com.smarbl.service.UserAuthenticateService;
+import com.smarbl.service.support.LoginRateLimiter;
+import jakarta.servlet.http.HttpServletRequest;
+import io.jsonwebtoken.JwtException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 @RestController
 @RequestMapping("/api/v1")
 public class UserLoginController {
@@ -19,52 +29,129 @@ public class UserLoginController {
     @Autowired
     private UserAuthenticateService userAuthenticateService;
 
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
+
     /**
      * Endpoint to login a user.
+     * Attempts are rate limited per client address and per email before anything is looked up; an
+     * attempt over the limit is answered with 429 and Retry-After.
+     * The password is verified on the password hashing executor, so the request thread is not held
+     * while bcrypt runs; when too many logins are waiting the response is 503 with Retry-After.
      * 
      * @param loginRequest Login request body containing email and password.
-     * @return JWT token if authentication is successful.
+     * @param request The HTTP request, for the client address.
+     * @return JWT token if authentication is successful, 401 if the credentials are wrong.
      */
     @PostMapping("/login")
-    public ResponseEntity<?> loginUser(@RequestBody LoginRequestDTO loginRequest) {
+    public CompletableFuture<ResponseEntity<?>> loginUser(@RequestBody LoginRequestDTO loginRequest,
+                                                          HttpServletRequest request) {
         try {
             logger.info("Attempting to authenticate user with email: {}", loginRequest.getEmail());
-            String token = userAuthenticateService.authenticateUser(loginRequest.getEmail(), loginRequest.getPassword());
+            loginRateLimiter.acquire(loginRequest.getEmail(), request.getRemoteAddr());
+            return userAuthenticateService.authenticateUser(loginRequest.getEmail(), loginRequest.getPassword())
+                    .handle((token, error) -> {
+                        if (error == null) {
+                            logger.info("User authenticated successfully with email: {}", loginRequest.getEmail());
+                            return ResponseEntity.ok().body(token);
+                        }
+                        return loginFailed(loginRequest, unwrap(error));
+                    });
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(loginFailed(loginRequest, e));
+        }
+    }
 
-            // Return token if authentication is successful
-            if (token != null) {
-                logger.info("User authenticated successfully with email: {}", loginRequest.getEmail());
-                return ResponseEntity.ok().body(token);
-            } else {
-                logger.warn("Authentication failed for email: {}", loginRequest.getEmail());
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                                     .body("Invalid credentials, please try again.");
-            }
+    private ResponseEntity<?> loginFailed(LoginRequestDTO loginRequest, Throwable error) {
+        if (error instanceof InvalidCredentialsException) {
+            logger.warn("Authentication failed for email: {}", loginRequest.getEmail());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                 .body("Invalid credentials, please try again.");
+        }
+        if (error instanceof RateLimitedException) {
+            logger.warn("Too many login attempts for email: {}", loginRequest.getEmail());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                                 .header(HttpHeaders.RETRY_AFTER,
+                                         String.valueOf(((RateLimitedException) error).getRetryAfterSeconds()))
+                                 .body("Too many login attempts, please retry later.");
+        }
+        if (error instanceof ServiceBusyException) {
+            logger.warn("Password hashing queue is full, rejecting login for email: {}", loginRequest.getEmail());
+            return busy((ServiceBusyException) error);
+        }
+        logger.error("Error during authentication for email: {}", loginRequest.getEmail(), error);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                             .body("An error occurred while processing the login.");
+    }
+
+    /**
+     * Endpoint to log out: revokes the bearer token of the request, or with all=true every token
+     * issued to the user so far.
+     * 
+     * @param authorizationHeader The Authorization header carrying the bearer token.
+     * @param all Whether to log out of every session.
+     * @return 204 (No Content), or 401 (Unauthorized) without a valid token.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logoutUser(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorizationHeader,
+                                           @RequestParam(defaultValue = "false") boolean all) {
+        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
+            logger.warn("Logout without a bearer token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            userAuthenticateService.logout(authorizationHeader.substring(7), all);
+            return ResponseEntity.noContent().build();
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.warn("Logout with an invalid token: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         } catch (Exception e) {
-            logger.error("Error during authentication for email: {}", loginRequest.getEmail(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                                 .body("An error occurred while processing the login.");
+            logger.error("Error during logout", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
     /**
      * Endpoint to register a new user.
+     * The password is hashed on the password hashing executor; when too many hashes are waiting the
+     * response is 503 with Retry-After.
      * 
      * @param user The user object containing registration information.
      * @return Response with the registered user details.
      */
     @PostMapping("/register")
-    public ResponseEntity<User> registerUser(@RequestBody User user) {
+    public CompletableFuture<ResponseEntity<User>> registerUser(@RequestBody User user) {
         try {
             logger.info("Attempting to register new user with email: {}", user.getUserEmail());
-            User registeredUser = userAuthenticateService.registerUser(user);
-
-            logger.info("User registered successfully with email: {}", user.getUserEmail());
-            return ResponseEntity.status(HttpStatus.CREATED).body(registeredUser);
+            return userAuthenticateService.registerUser(user).handle((registeredUser, error) -> {
+                if (error == null) {
+                    logger.info("User registered successfully with email: {}", user.getUserEmail());
+                    return ResponseEntity.status(HttpStatus.CREATED).body(registeredUser);
+                }
+                return registrationFailed(user, unwrap(error));
+            });
         } catch (Exception e) {
-            logger.error("Error during user registration with email: {}", user.getUserEmail(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                                 .body(null);
+            return CompletableFuture.completedFuture(registrationFailed(user, e));
+        }
+    }
+
+    private ResponseEntity<User> registrationFailed(User user, Throwable error) {
+        if (error instanceof ServiceBusyException) {
+            logger.warn("Password hashing queue is full, rejecting registration with email: {}", user.getUserEmail());
+            return busy((ServiceBusyException) error);
         }
+        logger.error("Error during user registration with email: {}", user.getUserEmail(), error);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                             .body(null);
+    }
+
+    private static <T> ResponseEntity<T> busy(ServiceBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                             .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                             .build();
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
     }
 }
@@ -4,8 +4,10 @@ import java.io.IOException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
@@ -14,8 +16,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import com.smarbl.util.JwtUtil;
 
 import io.jsonwebtoken.ExpiredJwtException;
-import io.jsonwebtoken.MalformedJwtException;
-import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,6 +24,12 @@ import jakarta.servlet.http.HttpServletResponse;
 
 /**
  * JWT Authentication Filter to intercept requests and validate JWT tokens.
+ * <p>
+ * In stateless mode (smarbl.auth.stateless, the default) a token that carries the
+ * user ID is turned into an Authentication from its claims alone, so an
+ * authenticated request costs no database work. Revocation is checked against the
+ * in-memory {@link TokenRevocations}. Tokens without a user ID, issued before
+ * claims were embedded, still load the user.
  */
 @Component
 public class JwtRequestFilter extends OncePerRequestFilter {
@@ -31,11 +38,17 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocations tokenRevocations;
+    private final boolean stateless;
 
     // Constructor to inject dependencies
-    public JwtRequestFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JwtRequestFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService,
+                            TokenRevocations tokenRevocations,
+                            @Value("${smarbl.auth.stateless:true}") boolean stateless) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.tokenRevocations = tokenRevocations;
+        this.stateless = stateless;
     }
 
     /**
@@ -58,16 +71,16 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
         // Extract JWT token from the Authorization header
         String jwtToken = authorizationHeader.substring(7);
-        String email = null;
+        VerifiedToken token;
 
-        // Try to extract the email from the JWT token
+        // Verify the token once; a token seen before comes from the cache without another signature check
         try {
-            email = jwtUtil.extractEmail(jwtToken);
+            token = jwtUtil.verify(jwtToken);
         } catch (ExpiredJwtException e) {
             logger.error("JWT token has expired: {}", e.getMessage());
             response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "JWT Token has expired");
             return;
-        } catch (MalformedJwtException | UnsupportedJwtException e) {
+        } catch (JwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
             response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid JWT Token");
             return;
@@ -76,15 +89,30 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid token format");
             return;
         }
+        if (tokenRevocations.isRevoked(token)) {
+            logger.warn("Revoked JWT token used by user: {}", token.getEmail());
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "JWT Token has been revoked");
+            return;
+        }
+        String email = token.getEmail();
 
         // If email is valid and user is not already authenticated
         if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            // Load user details by email
-            UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+            UserDetails userDetails;
+            if (stateless && token.isSelfContained()) {
+                // Build the principal from the verified claims, without a database lookup
+                userDetails = User.withUsername(email)
+                        .password("")
+                        .authorities(token.getAuthorities().toArray(String[]::new))
+                        .build();
+            } else {
+                // Load user details by email
+                userDetails = userDetailsService.loadUserByUsername(email);
+            }
 
-            // If the token is valid, set authentication in the SecurityContext
-            if (jwtUtil.validateToken(jwtToken, userDetails.getUsername())) {
-                logger.info("JWT token is valid for user: {}", email);
+            // The token is verified and unexpired; it only has to belong to the user
+            if (email.equals(userDetails.getUsername())) {
+                logger.debug("JWT token is valid for user: {}", email);
                 UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 SecurityContextHolder.getContext().setAuthentication(authenticationToken);
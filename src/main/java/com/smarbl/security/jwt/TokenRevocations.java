@@ -0,0 +1,135 @@
+package com.smarbl.security.jwt;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.smarbl.event.UserDeletedEvent;
+import com.smarbl.event.UserUpdatedEvent;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * In-memory revocation of JWTs that have not expired yet.
+ * <p>
+ * Two maps: revoked token IDs, each kept until its token would have expired, and
+ * per-user "not before" times, which revoke every token of a user issued before
+ * them and are kept for one token lifetime. Both only hold entries that can still
+ * reject a live token, so they stay small however many tokens are issued, and a
+ * check is two hash lookups with no database work.
+ * <p>
+ * Token issue times have one-second precision, so a token issued in the same
+ * second as a per-user revocation is rejected too. Revocations live in this
+ * process only.
+ */
+@Component
+public class TokenRevocations {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocations.class);
+
+    private final Map<String, Instant> revokedTokenIds = new ConcurrentHashMap<>();
+    private final Map<UUID, Instant> notBeforeByUser = new ConcurrentHashMap<>();
+    private final long tokenLifetimeMillis;
+
+    public TokenRevocations(@Value("${jwt.expiration}") long tokenLifetimeMillis, MeterRegistry meterRegistry) {
+        this.tokenLifetimeMillis = tokenLifetimeMillis;
+        Gauge.builder("smarbl.jwt.revoked.tokens", revokedTokenIds, Map::size)
+                .description("Revoked token IDs that have not expired yet").register(meterRegistry);
+        Gauge.builder("smarbl.jwt.revoked.users", notBeforeByUser, Map::size)
+                .description("Users whose earlier tokens are revoked").register(meterRegistry);
+    }
+
+    /**
+     * @param token a verified token
+     * @return whether the token has been revoked on its own or with all tokens of its user
+     */
+    public boolean isRevoked(VerifiedToken token) {
+        if (token.getTokenId() != null && revokedTokenIds.containsKey(token.getTokenId())) {
+            return true;
+        }
+        if (token.getUserId() == null) {
+            return false;
+        }
+        Instant notBefore = notBeforeByUser.get(token.getUserId());
+        return notBefore != null && (token.getIssuedAt() == null || token.getIssuedAt().isBefore(notBefore));
+    }
+
+    /**
+     * Revokes one token, e.g. on logout.
+     *
+     * @param token a verified token
+     */
+    public void revoke(VerifiedToken token) {
+        if (token.getTokenId() == null) {
+            // Tokens issued before token IDs existed can only be revoked per user
+            revokeAllIssuedBefore(token.getUserId(), Instant.now());
+            return;
+        }
+        revokedTokenIds.put(token.getTokenId(), token.getExpiresAt());
+    }
+
+    /**
+     * Revokes every token of a user issued before the given time.
+     *
+     * @param userId    the user ID
+     * @param notBefore tokens issued before this time are rejected
+     */
+    public void revokeAllIssuedBefore(UUID userId, Instant notBefore) {
+        if (userId == null) {
+            return;
+        }
+        // Issue times are whole seconds; round up so nothing issued before the revocation survives it
+        Instant rounded = notBefore.truncatedTo(ChronoUnit.SECONDS);
+        if (rounded.isBefore(notBefore)) {
+            rounded = rounded.plusSeconds(1);
+        }
+        notBeforeByUser.merge(userId, rounded, (current, added) -> added.isAfter(current) ? added : current);
+        logger.info("Revoked all tokens of user {} issued before {}", userId, rounded);
+    }
+
+    /**
+     * Revokes the tokens of a user whose email changed, since they name the old
+     * email, or whose password changed, so a leaked token dies with the old password.
+     *
+     * @param event the user updated event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserUpdated(UserUpdatedEvent event) {
+        boolean emailChanged = event.getPreviousEmail() != null
+                && !event.getPreviousEmail().equals(event.getUserEmail());
+        if (emailChanged || event.isPasswordChanged()) {
+            revokeAllIssuedBefore(event.getUserId(), Instant.now());
+        }
+    }
+
+    /**
+     * Revokes the tokens of a deleted user.
+     *
+     * @param event the user deleted event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        revokeAllIssuedBefore(event.getUserId(), Instant.now());
+    }
+
+    /**
+     * Drops revocations that can no longer match a live token.
+     */
+    @Scheduled(fixedDelayString = "${smarbl.jwt.revocation.purge-ms:60000}")
+    public void purge() {
+        Instant now = Instant.now();
+        revokedTokenIds.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        Instant oldestLiveIssue = now.minusMillis(tokenLifetimeMillis);
+        notBeforeByUser.values().removeIf(notBefore -> notBefore.isBefore(oldestLiveIssue));
+    }
+}
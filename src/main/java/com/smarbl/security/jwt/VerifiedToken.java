@@ -0,0 +1,86 @@
+package com.smarbl.security.jwt;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The claims of a JWT whose signature has been verified. Immutable, so one
+ * instance can be cached and shared by every request that presents the token.
+ */
+public final class VerifiedToken {
+
+    private final String tokenId;
+    private final UUID userId;
+    private final String email;
+    private final List<String> authorities;
+    private final Instant issuedAt;
+    private final Instant expiresAt;
+
+    public VerifiedToken(String tokenId, UUID userId, String email, List<String> authorities, Instant issuedAt,
+                         Instant expiresAt) {
+        this.tokenId = tokenId;
+        this.userId = userId;
+        this.email = email;
+        this.authorities = authorities == null ? List.of() : List.copyOf(authorities);
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * @return the token ID (jti), or null for tokens issued without one
+     */
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    /**
+     * @return the ID of the user the token was issued to, or null for tokens issued without one
+     */
+    public UUID getUserId() {
+        return userId;
+    }
+
+    /**
+     * @return the subject of the token, the user's email
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * @return the authorities granted to the user when the token was issued
+     */
+    public List<String> getAuthorities() {
+        return authorities;
+    }
+
+    /**
+     * @return whether the token carries the user ID, so it can be authenticated without loading the user
+     */
+    public boolean isSelfContained() {
+        return userId != null;
+    }
+
+    /**
+     * @return when the token was issued
+     */
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    /**
+     * @return when the token expires
+     */
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * @param now the current time
+     * @return whether the token has expired at the given time
+     */
+    public boolean isExpired(Instant now) {
+        return !now.isBefore(expiresAt);
+    }
+}
@@ -0,0 +1,151 @@
+package com.smarbl.security.service;
+
+import java.time.Duration;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smarbl.event.UserDeletedEvent;
+import com.smarbl.event.UserRegisteredEvent;
+import com.smarbl.event.UserUpdatedEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded, time-limited cache of UserDetails keyed by normalized email, shared by
+ * {@link CustomUserDetailsService} (and through it the JWT filter) and the
+ * DaoAuthenticationProvider.
+ * <p>
+ * Emails that matched no user are remembered for a shorter time, so repeated
+ * lookups of unknown emails do not reach the database either. Both caches are
+ * keyed by normalized email, so storing or evicting a user also clears an unknown
+ * entry for the same email in any case, as a case-insensitive database collation
+ * would match it. Each entry keeps the exact email it was stored for and is only
+ * returned for that email, so on a case-sensitive database another spelling is
+ * looked up rather than answered from the cache. Entries are evicted once a
+ * registration, update or deletion of the user has committed; the TTL bounds how
+ * long a load that raced with such a commit can stay cached.
+ * <p>
+ * Entries are copied on the way in and out: the authentication manager erases the
+ * password of the UserDetails it authenticated, which must not reach the cache.
+ */
+@Component
+public class CachingUserCache implements UserCache {
+
+    private final Cache<String, UserDetails> users;
+    // Normalized email to the exact email that matched no user
+    private final Cache<String, String> unknownEmails;
+
+    public CachingUserCache(@Value("${smarbl.auth.user-cache.max-size:10000}") long maxSize,
+                            @Value("${smarbl.auth.user-cache.ttl-seconds:300}") long ttlSeconds,
+                            @Value("${smarbl.auth.user-cache.negative-ttl-seconds:30}") long negativeTtlSeconds,
+                            MeterRegistry meterRegistry) {
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.unknownEmails = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(negativeTtlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "user.details");
+        CaffeineCacheMetrics.monitor(meterRegistry, unknownEmails, "user.details.unknown");
+    }
+
+    /**
+     * @param email an email as typed
+     * @return the key the email is cached under
+     */
+    private static String normalize(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        if (username == null) {
+            return null;
+        }
+        UserDetails cached = users.getIfPresent(normalize(username));
+        // Another user may own the same email in another case
+        return cached == null || !cached.getUsername().equals(username) ? null : copy(cached);
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        String key = normalize(user.getUsername());
+        users.put(key, copy(user));
+        unknownEmails.invalidate(key);
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        if (username == null) {
+            return;
+        }
+        String key = normalize(username);
+        users.invalidate(key);
+        unknownEmails.invalidate(key);
+    }
+
+    /**
+     * @param email an email
+     * @return whether the email recently matched no user
+     */
+    public boolean isKnownMissing(String email) {
+        return email != null && email.equals(unknownEmails.getIfPresent(normalize(email)));
+    }
+
+    /**
+     * Remembers that an email matched no user.
+     *
+     * @param email the email
+     */
+    public void putMissing(String email) {
+        if (email != null) {
+            unknownEmails.put(normalize(email), email);
+        }
+    }
+
+    /**
+     * Forgets that the email of a newly registered user was unknown.
+     *
+     * @param event the user registered event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserRegistered(UserRegisteredEvent event) {
+        removeUserFromCache(event.getUserEmail());
+    }
+
+    /**
+     * Evicts the user under both the old and the new email.
+     *
+     * @param event the user updated event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserUpdated(UserUpdatedEvent event) {
+        removeUserFromCache(event.getPreviousEmail());
+        removeUserFromCache(event.getUserEmail());
+    }
+
+    /**
+     * @param event the user deleted event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        removeUserFromCache(event.getUserEmail());
+    }
+
+    private static UserDetails copy(UserDetails user) {
+        return User.withUserDetails(user).build();
+    }
+}
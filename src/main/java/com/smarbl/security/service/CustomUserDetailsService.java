@@ -12,25 +12,59 @@ import org.springframework.stereotype.Service;
 import com.smarbl.model.User;
 import com.smarbl.repository.UserRepository;
 
+/**
+ * Loads users by email for the JWT filter and the DaoAuthenticationProvider,
+ * sharing one {@link CachingUserCache}, so a known user, or an email that matched
+ * no user, is only read from the database once per cache TTL.
+ * <p>
+ * The filter calls {@link #loadUserByUsername(String)}, which reads the cache. The
+ * provider reads the cache itself and loads through {@link #loadUserFromDatabase(String)},
+ * so when a cached user fails the password check its retry sees the current row.
+ */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
     private static final Logger logger = LoggerFactory.getLogger(CustomUserDetailsService.class);
 
     private final UserRepository userRepository;
+    private final CachingUserCache userCache;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, CachingUserCache userCache) {
         this.userRepository = userRepository;
+        this.userCache = userCache;
     }
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        UserDetails cached = userCache.getUserFromCache(email);
+        if (cached != null) {
+            logger.debug("User details cache hit for email: {}", email);
+            return cached;
+        }
+        return loadUserFromDatabase(email);
+    }
+
+    /**
+     * Loads a user from the database without consulting the cached users, and caches the result.
+     * Emails recently found to match no user are still rejected without a query.
+     *
+     * @param email the user's email
+     * @return the user's details
+     * @throws UsernameNotFoundException if no user has the email
+     */
+    public UserDetails loadUserFromDatabase(String email) throws UsernameNotFoundException {
+        if (userCache.isKnownMissing(email)) {
+            logger.debug("User details cache hit for unknown email: {}", email);
+            throw new UsernameNotFoundException("User not found with email: " + email);
+        }
+
     	logger.info("Attempting to load user with email: {}", email);
 
         Optional<User> userOptional = userRepository.findByUserEmail(email);
 
         if (userOptional.isEmpty()) {
             logger.warn("User not found with email: {}", email);
+            userCache.putMissing(email);
             throw new UsernameNotFoundException("User not found with email: " + email);
         }
 
@@ -39,11 +73,13 @@ public class CustomUserDetailsService implements UserDetailsService {
         
         logger.info("User found with email: {}", email);
 
-        return org.springframework.security.core.userdetails.User.builder()
+        UserDetails userDetails = org.springframework.security.core.userdetails.User.builder()
                 .username(user.getUserEmail())
                 .password(user.getUserPassword())  // Ensure password is stored as bcrypt hash
                // .roles("USER")  // Assign roles, can be fetched from DB
                 .build();
+        userCache.putUserInCache(userDetails);
+        return userDetails;
     }
 }
 
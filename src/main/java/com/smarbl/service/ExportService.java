@@ -0,0 +1,38 @@
+package com.smarbl.service;
+
+import com.smarbl.dto.LikeDTO;
+import com.smarbl.dto.PostDTO;
+import com.smarbl.dto.UserDTO;
+
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * Service interface for bulk exports. Rows are handed to a sink one at a time as
+ * they are read, so memory use does not depend on the number of rows.
+ */
+public interface ExportService {
+
+	/**
+	 * Exports all users.
+	 *
+	 * @param sink receives every user
+	 */
+	void exportUsers(Consumer<UserDTO> sink);
+
+	/**
+	 * Exports the posts created after an instant, oldest first.
+	 *
+	 * @param since only posts created after this instant are exported
+	 * @param sink  receives every post, with content, author and like count
+	 */
+	void exportPosts(Instant since, Consumer<PostDTO> sink);
+
+	/**
+	 * Exports the likes given after an instant, oldest first.
+	 *
+	 * @param since only likes created after this instant are exported
+	 * @param sink  receives every like
+	 */
+	void exportLikes(Instant since, Consumer<LikeDTO> sink);
+}
@@ -1,11 +1,15 @@
 package com.smarbl.service;
 
+import com.smarbl.dto.CursorPageDTO;
+import com.smarbl.dto.LikeBatchResultDTO;
 import com.smarbl.dto.LikeDTO;
 import com.smarbl.dto.LikeCountDTO;
 import com.smarbl.dto.UserDTO;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service interface for Like operations.
@@ -14,7 +18,13 @@ public interface LikeService {
 
     void likePost(LikeDTO likeDTO);
 
+    CompletableFuture<Void> likePostAsync(LikeDTO likeDTO);
+
+    List<LikeBatchResultDTO> likePosts(List<LikeDTO> likeDTOs);
+
     List<LikeCountDTO> getLikeCountsForPosts(List<UUID> postIds);
 
-    List<UserDTO> getUsersWhoLikedPost(UUID postId);
+    SseEmitter subscribeToLikeCounts(List<UUID> postIds);
+
+    CursorPageDTO<UserDTO> getUsersWhoLikedPost(UUID postId, int limit, String cursor);
 }
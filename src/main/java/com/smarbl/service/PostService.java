@@ -1,9 +1,15 @@
 package com.smarbl.service;
 
+import com.smarbl.dto.CursorPageDTO;
+import com.smarbl.dto.PostBatchResultDTO;
 import com.smarbl.dto.PostDTO;
+import com.smarbl.dto.PostSearchResultDTO;
+import com.smarbl.dto.PostSummaryDTO;
+import com.smarbl.dto.TrendingPostDTO;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Service interface for Post operations.
@@ -12,9 +18,19 @@ public interface PostService {
 
     PostDTO createPost(PostDTO postDTO);
 
+    void createPosts(List<PostDTO> postDTOs, Consumer<List<PostBatchResultDTO>> resultSink);
+
     void deletePost(UUID postId);
 
-    PostDTO getPostById(UUID postId);
+    PostDTO getPostById(UUID postId, boolean includeContent);
+
+    long getPostVersion(UUID postId);
+
+    CursorPageDTO<PostSummaryDTO> getAllPostsByUser(UUID userId, int limit, String cursor);
+
+    CursorPageDTO<PostDTO> getFeed(UUID userId, int limit, String cursor);
+
+    PostSearchResultDTO searchPosts(String query, int page, int size);
 
-    List<PostDTO> getAllPostsByUser(UUID userId);
+    List<TrendingPostDTO> getTrendingPosts(int limit);
 }
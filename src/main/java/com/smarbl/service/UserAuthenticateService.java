@@ -2,6 +2,8 @@ package com.smarbl.service;
 
 import com.smarbl.model.User;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * The interface defines two methods: authenticate(): For authenticating the
  * user based on email and password. registerUser(): For registering a new user.
@@ -16,9 +18,12 @@ public interface UserAuthenticateService {
 	 * 
 	 * @param email    - User's email.
 	 * @param password - User's password.
-	 * @return - User object if authenticated, else null.
+	 * @return - Future completed with the JWT token if authenticated, else failed
+	 *         with InvalidCredentialsException.
+	 * @throws com.smarbl.exception.InvalidCredentialsException if no user has the email
+	 * @throws com.smarbl.exception.ServiceBusyException if too many passwords are waiting to be verified
 	 */
-	 String authenticateUser(String email, String password);
+	 CompletableFuture<String> authenticateUser(String email, String password);
 
 	/**
 	@Override
@@ -39,9 +44,19 @@ public interface UserAuthenticateService {
 	/**
 	 * Register a new user.
 	 * @param user - User object to be registered.
-	 * @return - The saved User object.
+	 * @return - Future completed with the saved User object.
+	 * @throws com.smarbl.exception.ServiceBusyException if too many passwords are waiting to be hashed
+	 */
+	CompletableFuture<User> registerUser(User user);
+
+	/**
+	 * Log out by revoking a token, or every token of its user.
+	 * 
+	 * @param token       - The compact JWT to revoke.
+	 * @param allSessions - Whether to revoke every token issued to the user so far.
+	 * @throws io.jsonwebtoken.JwtException if the token is invalid or expired
 	 */
-	User registerUser(User user);
+	void logout(String token, boolean allSessions);
 
 	/**
 	 * Register a new user.
@@ -1,17 +1,26 @@
 package com.smarbl.service;
 
+import com.smarbl.event.UserRegisteredEvent;
 import com.smarbl.exception.InvalidCredentialsException;
+import com.smarbl.exception.ServiceBusyException;
 import com.smarbl.model.User;
 import com.smarbl.repository.UserRepository;
+import com.smarbl.security.jwt.TokenRevocations;
+import com.smarbl.security.jwt.VerifiedToken;
+import com.smarbl.service.support.PasswordHasher;
 import com.smarbl.util.JwtUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class UserAuthenticateServiceImpl implements UserAuthenticateService {
@@ -20,23 +29,35 @@ public class UserAuthenticateServiceImpl implements UserAuthenticateService {
 
     private final UserRepository userRepository;
     private final JwtUtil jwtUtil;
-    private final PasswordEncoder passwordEncoder;
+    private final TokenRevocations tokenRevocations;
+    private final PasswordHasher passwordHasher;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public UserAuthenticateServiceImpl(UserRepository userRepository, JwtUtil jwtUtil) {
+    public UserAuthenticateServiceImpl(UserRepository userRepository, JwtUtil jwtUtil,
+                                       TokenRevocations tokenRevocations, PasswordHasher passwordHasher,
+                                       TransactionTemplate transactionTemplate,
+                                       ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.jwtUtil = jwtUtil;
-        this.passwordEncoder = new BCryptPasswordEncoder(); // Using BCrypt for password encoding
+        this.tokenRevocations = tokenRevocations;
+        this.passwordHasher = passwordHasher; // bcrypt on a dedicated, bounded executor
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
      * Authenticate a user based on email and password.
+     * The password is verified on the password hashing executor, and a hash stored with an outdated
+     * work factor is replaced once the password has been verified.
      * @param email - User's email.
      * @param password - User's password.
-     * @return - JWT token if authenticated, else throw InvalidCredentialsException.
+     * @return - Future completed with the JWT token if authenticated, else failed with InvalidCredentialsException.
+     * @throws ServiceBusyException if too many passwords are waiting to be verified.
      */
     @Override
-    public String authenticateUser(String email, String password) {
+    public CompletableFuture<String> authenticateUser(String email, String password) {
         // Log the start of the authentication process
         logger.info("Attempting to authenticate user with email: {}", email);
 
@@ -46,33 +67,76 @@ public class UserAuthenticateServiceImpl implements UserAuthenticateService {
             logger.error("Authentication failed: User not found with email: {}", email);
             return new InvalidCredentialsException("Invalid email or password.");
         });
+        String storedHash = user.getUserPassword();
 
         // Check if the provided password matches the stored one
-        if (passwordEncoder.matches(password, user.getUserPassword())) {
+        return passwordHasher.matches(password, storedHash).thenApply(matches -> {
+            if (!matches) {
+                logger.error("Authentication failed: Invalid password for email: {}", email);
+                throw new InvalidCredentialsException("Invalid email or password.");
+            }
+            if (passwordHasher.needsRehash(storedHash)) {
+                rehash(user.getUserId(), storedHash, password);
+            }
             logger.info("Authentication successful for user: {}", email);
-            return jwtUtil.generateToken(user.getUserEmail());
+            // Users have no roles yet, so the token grants no authorities
+            return jwtUtil.generateToken(user.getUserId(), user.getUserEmail(), List.of());
+        });
+    }
+
+    /**
+     * Replace a verified password's hash with one made with the current work factor. Runs on the
+     * hashing thread that verified the password; a failure is logged and does not fail the login.
+     */
+    private void rehash(UUID userId, String storedHash, String password) {
+        try {
+            String newHash = passwordHasher.encodeNow(password);
+            Integer updated = transactionTemplate.execute(
+                    status -> userRepository.updatePasswordHash(userId, storedHash, newHash));
+            logger.info("Rehashed password of user {} with cost {}: {} row(s) updated", userId,
+                    passwordHasher.getCost(), updated);
+        } catch (Exception e) {
+            logger.warn("Could not rehash password of user {}", userId, e);
+        }
+    }
+
+    /**
+     * Log out by revoking a token, or every token of its user.
+     * @param token - The compact JWT to revoke.
+     * @param allSessions - Whether to revoke every token issued to the user so far.
+     */
+    @Override
+    public void logout(String token, boolean allSessions) {
+        VerifiedToken verified = jwtUtil.verify(token);
+        if (allSessions && verified.getUserId() != null) {
+            tokenRevocations.revokeAllIssuedBefore(verified.getUserId(), Instant.now());
         } else {
-            logger.error("Authentication failed: Invalid password for email: {}", email);
-            throw new InvalidCredentialsException("Invalid email or password.");
+            tokenRevocations.revoke(verified);
         }
+        logger.info("User logged out: {}", verified.getEmail());
     }
 
     /**
      * Register a new user.
+     * The password is hashed on the password hashing executor before the user is saved.
      * @param user - User object to be registered.
-     * @return - The saved User object.
+     * @return - Future completed with the saved User object.
+     * @throws ServiceBusyException if too many passwords are waiting to be hashed.
      */
     @Override
-    public User registerUser(User user) {
+    public CompletableFuture<User> registerUser(User user) {
         // Log the registration process
         logger.info("Attempting to register user with email: {}", user.getUserEmail());
 
         // Encrypt the password before saving
-        user.setUserPassword(passwordEncoder.encode(user.getUserPassword()));
-        
-        // Save the user and return
-        User savedUser = userRepository.save(user);
-        logger.info("User registered successfully with email: {}", savedUser.getUserEmail());
-        return savedUser;
+        return passwordHasher.encode(user.getUserPassword()).thenApply(hash -> {
+            user.setUserPassword(hash);
+
+            // Save the user and return
+            User savedUser = userRepository.save(user);
+            eventPublisher.publishEvent(new UserRegisteredEvent(savedUser.getUserId(), savedUser.getUserEmail()));
+            logger.info("User registered successfully with email: {}", savedUser.getUserEmail());
+            return savedUser;
+        });
     }
 }
@@ -1,9 +1,10 @@
 package com.smarbl.service;
 
+import com.smarbl.dto.CursorPageDTO;
+import com.smarbl.dto.DeletionJobDTO;
 import com.smarbl.dto.UserDTO;
 import com.smarbl.model.User;
 
-import java.util.List;
 import java.util.UUID;
 
 /**
@@ -35,6 +36,22 @@ public interface UserService {
 	 */
 	void deleteUser(UUID userId);
 
+	/**
+	 * Deletes a user by ID in the background.
+	 *
+	 * @param userId the ID of the user to be deleted
+	 * @return the deletion job, whose progress can be polled with {@link #getDeletionJob(UUID)}
+	 */
+	DeletionJobDTO deleteUserAsync(UUID userId);
+
+	/**
+	 * Retrieves the progress of a background user deletion.
+	 *
+	 * @param jobId the ID of the deletion job
+	 * @return the job, or null if it is unknown or has expired
+	 */
+	DeletionJobDTO getDeletionJob(UUID jobId);
+
 	/**
 	 * Retrieves a user by ID.
 	 *
@@ -44,10 +61,22 @@ public interface UserService {
 	UserDTO getUserById(UUID userId);
 
 	/**
-	 * Retrieves all users.
+	 * Retrieves the version of a user without loading it.
+	 *
+	 * @param userId the ID of the user
+	 * @return the current version, which changes on every update
+	 */
+	long getUserVersion(UUID userId);
+
+	/**
+	 * Retrieves one page of users in user ID order. For a full dump use
+	 * {@link ExportService#exportUsers}.
 	 *
-	 * @return a list of user DTOs
+	 * @param limit  the maximum number of users, capped at smarbl.page.max-limit
+	 * @param cursor the nextCursor of the previous page, or null for the first page
+	 * @return the page of user DTOs with the cursor of the next page
+	 * @throws com.smarbl.exception.ValidationException if the limit or cursor is invalid
 	 */
-	List<UserDTO> getAllUsers();
+	CursorPageDTO<UserDTO> getAllUsers(int limit, String cursor);
 
 }
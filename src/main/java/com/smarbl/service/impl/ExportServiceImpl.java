@@ -0,0 +1,71 @@
+package com.smarbl.service.impl;
+
+import com.smarbl.dto.LikeDTO;
+import com.smarbl.dto.PostDTO;
+import com.smarbl.dto.UserDTO;
+import com.smarbl.repository.LikeRepository;
+import com.smarbl.repository.PostRepository;
+import com.smarbl.repository.UserRepository;
+import com.smarbl.service.ExportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Service implementation for bulk exports.
+ * Each export runs one read-only transaction around a repository Stream: rows are fetched forward-only in
+ * fetch-size batches as DTO projections, so neither the persistence context nor the result set grows with
+ * the table, and each row is garbage as soon as the sink has written it.
+ */
+@Service
+public class ExportServiceImpl implements ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportServiceImpl.class);
+
+    private final UserRepository userRepository;
+    private final PostRepository postRepository;
+    private final LikeRepository likeRepository;
+
+    public ExportServiceImpl(UserRepository userRepository, PostRepository postRepository,
+                             LikeRepository likeRepository) {
+        this.userRepository = userRepository;
+        this.postRepository = postRepository;
+        this.likeRepository = likeRepository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportUsers(Consumer<UserDTO> sink) {
+        export("users", userRepository::streamAllUsers, sink);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportPosts(Instant since, Consumer<PostDTO> sink) {
+        export("posts", () -> postRepository.streamPostsCreatedAfter(since), sink);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportLikes(Instant since, Consumer<LikeDTO> sink) {
+        export("likes", () -> likeRepository.streamLikesCreatedAfter(since), sink);
+    }
+
+    private <T> void export(String what, Supplier<Stream<T>> query, Consumer<T> sink) {
+        logger.info("Starting export of {}", what);
+        long rows = 0;
+        try (Stream<T> stream = query.get()) {
+            for (T row : (Iterable<T>) stream::iterator) {
+                sink.accept(row);
+                rows++;
+            }
+        }
+        logger.info("Exported {} {}", rows, what);
+    }
+}
@@ -1,25 +1,42 @@
 package com.smarbl.service.impl;
 
+import com.smarbl.dto.CursorPageDTO;
+import com.smarbl.dto.LikeBatchResultDTO;
 import com.smarbl.dto.LikeDTO;
+import com.smarbl.dto.LikeOutcome;
 import com.smarbl.dto.LikeCountDTO;
 import com.smarbl.dto.UserDTO;
+import com.smarbl.event.PostLikedEvent;
 import com.smarbl.exception.PostNotFoundException;
 import com.smarbl.exception.UserNotFoundException;
 import com.smarbl.exception.ValidationException;
 import com.smarbl.model.Like;
-import com.smarbl.model.Post;
-import com.smarbl.model.User;
 import com.smarbl.repository.LikeRepository;
 import com.smarbl.repository.PostRepository;
 import com.smarbl.repository.UserRepository;
 import com.smarbl.service.LikeService;
+import com.smarbl.service.support.LikeBloomFilter;
+import com.smarbl.service.support.LikeCountBroadcaster;
+import com.smarbl.service.support.LikeCommitPipeline;
+import com.smarbl.service.support.LikeCounterStore;
+import com.smarbl.util.CursorCodec;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 /**
@@ -34,18 +51,50 @@ public class LikeServiceImpl implements LikeService {
 	private final LikeRepository likeRepository;
 	private final PostRepository postRepository;
 	private final UserRepository userRepository;
+	private final LikeCounterStore likeCounterStore;
+	private final LikeBloomFilter likeBloomFilter;
+	private final LikeCountBroadcaster likeCountBroadcaster;
+	private final ApplicationEventPublisher eventPublisher;
+	private final ObjectProvider<LikeCommitPipeline> likeCommitPipeline;
+	private final Executor likeCountExecutor;
+	private final int countChunkSize;
+	private final int maxBatchSize;
+	private final int maxPageSize;
+	private final int maxStreamPosts;
 
 	@Autowired
 	public LikeServiceImpl(LikeRepository likeRepository, PostRepository postRepository,
-			UserRepository userRepository) {
+			UserRepository userRepository, LikeCounterStore likeCounterStore, LikeBloomFilter likeBloomFilter,
+			LikeCountBroadcaster likeCountBroadcaster,
+			ApplicationEventPublisher eventPublisher, ObjectProvider<LikeCommitPipeline> likeCommitPipeline,
+			@Qualifier("likeCountExecutor") Executor likeCountExecutor,
+			@Value("${smarbl.like.count.chunk-size:500}") int countChunkSize,
+			@Value("${smarbl.like.batch.max-size:1000}") int maxBatchSize,
+			@Value("${smarbl.page.max-limit:500}") int maxPageSize,
+			@Value("${smarbl.like.stream.max-posts:200}") int maxStreamPosts) {
 		this.likeRepository = likeRepository;
 		this.postRepository = postRepository;
 		this.userRepository = userRepository;
+		this.likeCounterStore = likeCounterStore;
+		this.likeBloomFilter = likeBloomFilter;
+		this.likeCountBroadcaster = likeCountBroadcaster;
+		this.eventPublisher = eventPublisher;
+		this.likeCommitPipeline = likeCommitPipeline;
+		this.likeCountExecutor = likeCountExecutor;
+		this.countChunkSize = countChunkSize;
+		this.maxBatchSize = maxBatchSize;
+		this.maxPageSize = maxPageSize;
+		this.maxStreamPosts = maxStreamPosts;
 	}
 
 	/**
-	 * Like a post by a user. Validates the existence of the post and user and
-	 * checks if the user has already liked the post. Logs errors and successful
+	 * Like a post by a user. The like is inserted with a single insert-select that
+	 * only produces a row if the post and user exist and the user is not the
+	 * author; duplicates are rejected by the unique (post_id, user_id) constraint.
+	 * Only when nothing was inserted are further lookups made to report why. The
+	 * like Bloom filter is consulted first: if the user may already have liked the
+	 * post, an existence query rejects the duplicate without attempting the
+	 * insert; otherwise that query is skipped. Logs errors and successful
 	 * operations.
 	 *
 	 * @param likeDTO - The DTO containing the user's like details.
@@ -56,36 +105,41 @@ public class LikeServiceImpl implements LikeService {
 		logger.info("Received request to like post with ID: {} by user with ID: {}", likeDTO.getPostId(),
 				likeDTO.getUserId());
 
+		UUID postId = likeDTO.getPostId();
+		UUID userId = likeDTO.getUserId();
 		try {
-			// Check if the post exists
-			Post post = postRepository.findById(likeDTO.getPostId())
-					.orElseThrow(() -> new PostNotFoundException("Post not found with id: " + likeDTO.getPostId()));
-
-			// Check if the user exists
-			User user = userRepository.findById(likeDTO.getUserId())
-					.orElseThrow(() -> new UserNotFoundException("User not found with id: " + likeDTO.getUserId()));
-
-			// Prevent user from liking their own post
-			if (post.getUser().getUserId().equals(user.getUserId())) {
-				logger.warn("User with ID: {} tried to like their own post with ID: {}", user.getUserId(),
-						post.getPostId());
-				throw new ValidationException("User cannot like their own post.");
+			// Check if the user has already liked the post, only when the Bloom filter cannot rule it out
+			if (likeBloomFilter.mightContain(postId, userId)) {
+				if (likeRepository.existsByPostIdAndUserId(postId, userId)) {
+					logger.warn("User with ID: {} has already liked post with ID: {}", userId, postId);
+					throw new ValidationException("User has already liked this post.");
+				}
+				likeBloomFilter.recordFalsePositive();
 			}
 
-			// Check if the user has already liked the post
-			if (likeRepository.existsByPostAndUser(post, user)) {
-				logger.warn("User with ID: {} has already liked post with ID: {}", user.getUserId(), post.getPostId());
-				throw new ValidationException("User has already liked this post.");
+			// Insert the like if the post and user exist and the user is not the author
+			int inserted;
+			try {
+				inserted = likeRepository.insertLikeIfAllowed(UUID.randomUUID(), postId, userId);
+			} catch (DataIntegrityViolationException e) {
+				if (!isDuplicateLike(e)) {
+					throw e;
+				}
+				logger.warn("User with ID: {} has already liked post with ID: {}", userId, postId);
+				throw new ValidationException("User has already liked this post.", e);
+			}
+			if (inserted == 0) {
+				throw likeRejection(postId, userId);
 			}
 
-			// Create and save the like
-			Like like = new Like();
-			like.setPost(post);
-			like.setUser(user);
-			likeRepository.save(like);
+			// In write-behind mode the counter store persists the count
+			if (!likeCounterStore.isWriteBehind()) {
+				postRepository.incrementLikeCount(postId, 1);
+			}
+			eventPublisher.publishEvent(new PostLikedEvent(postId, userId));
 
 			// Log successful like
-			logger.info("User with ID: {} successfully liked post with ID: {}", user.getUserId(), post.getPostId());
+			logger.info("User with ID: {} successfully liked post with ID: {}", userId, postId);
 
 		} catch (PostNotFoundException | UserNotFoundException | ValidationException e) {
 			// Log specific exceptions
@@ -101,8 +155,175 @@ public class LikeServiceImpl implements LikeService {
 	}
 
 	/**
-	 * Get the count of likes for a list of posts. Logs the successful retrieval of
-	 * like counts and errors.
+	 * Like a post through the group-commit pipeline. The like is written together
+	 * with other queued likes in one likePosts transaction, and the returned future
+	 * completes once that transaction has committed.
+	 *
+	 * @param likeDTO - The DTO containing the user's like details.
+	 * @return a future completed when the like is committed
+	 * @throws IllegalStateException if smarbl.like.async.enabled is not set
+	 */
+	@Override
+	public CompletableFuture<Void> likePostAsync(LikeDTO likeDTO) {
+		LikeCommitPipeline pipeline = likeCommitPipeline.getIfAvailable();
+		if (pipeline == null) {
+			throw new IllegalStateException("Asynchronous likes are disabled, set smarbl.like.async.enabled=true");
+		}
+		return pipeline.submit(likeDTO);
+	}
+
+	/**
+	 * Like many posts at once. Posts, users and existing likes are looked up with
+	 * one set-based query each (the existing-like query only for pairs the Bloom
+	 * filter cannot rule out), new likes reference posts and users through
+	 * getReferenceById proxies and are inserted with JDBC batching, and like
+	 * counters are updated once per post. Everything runs in one transaction.
+	 *
+	 * @param likeDTOs - The likes to create, each with postId and userId.
+	 * @return the outcome of every like, in request order
+	 */
+	@Override
+	@Transactional
+	public List<LikeBatchResultDTO> likePosts(List<LikeDTO> likeDTOs) {
+		logger.info("Received request to like {} posts in a batch", likeDTOs.size());
+
+		if (likeDTOs.size() > maxBatchSize) {
+			logger.warn("Rejected like batch of {} items, the limit is {}", likeDTOs.size(), maxBatchSize);
+			throw new ValidationException("A like batch cannot contain more than " + maxBatchSize + " items.");
+		}
+
+		try {
+			Set<UUID> postIds = likeDTOs.stream().filter(Objects::nonNull).map(LikeDTO::getPostId)
+					.filter(Objects::nonNull).collect(Collectors.toSet());
+			Set<UUID> userIds = likeDTOs.stream().filter(Objects::nonNull).map(LikeDTO::getUserId)
+					.filter(Objects::nonNull).collect(Collectors.toSet());
+
+			// Set-based lookups of post authors and existing users
+			Map<UUID, UUID> authorByPost = new HashMap<>();
+			if (!postIds.isEmpty()) {
+				postRepository.findAuthorIdsByPostIds(postIds)
+						.forEach(post -> authorByPost.put(post.getPostId(), post.getUserId()));
+			}
+			Set<UUID> existingUsers = new HashSet<>();
+			if (!userIds.isEmpty()) {
+				existingUsers.addAll(userRepository.findExistingUserIds(userIds));
+			}
+
+			// Existing likes, only queried when the Bloom filter cannot rule every pair out
+			Set<List<UUID>> likedPairs = new HashSet<>();
+			boolean mayHaveDuplicates = likeDTOs.stream().anyMatch(likeDTO -> likeDTO != null
+					&& likeDTO.getPostId() != null && likeDTO.getUserId() != null
+					&& likeBloomFilter.mightContain(likeDTO.getPostId(), likeDTO.getUserId()));
+			if (mayHaveDuplicates && !authorByPost.isEmpty() && !existingUsers.isEmpty()) {
+				likeRepository.findPostUserPairs(authorByPost.keySet(), existingUsers)
+						.forEach(pair -> likedPairs.add(List.of(pair.getPostId(), pair.getUserId())));
+			}
+
+			List<LikeBatchResultDTO> results = new ArrayList<>(likeDTOs.size());
+			List<Like> newLikes = new ArrayList<>();
+			Map<UUID, Long> createdPerPost = new HashMap<>();
+			for (LikeDTO likeDTO : likeDTOs) {
+				if (likeDTO == null) {
+					results.add(new LikeBatchResultDTO(null, null, LikeOutcome.INVALID));
+					continue;
+				}
+				UUID postId = likeDTO.getPostId();
+				UUID userId = likeDTO.getUserId();
+				LikeOutcome outcome;
+				if (!authorByPost.containsKey(postId)) {
+					outcome = LikeOutcome.MISSING_POST;
+				} else if (!existingUsers.contains(userId)) {
+					outcome = LikeOutcome.MISSING_USER;
+				} else if (authorByPost.get(postId).equals(userId)) {
+					outcome = LikeOutcome.SELF_LIKE;
+				} else if (!likedPairs.add(List.of(postId, userId))) {
+					outcome = LikeOutcome.DUPLICATE;
+				} else {
+					Like like = new Like();
+					like.setPost(postRepository.getReferenceById(postId));
+					like.setUser(userRepository.getReferenceById(userId));
+					newLikes.add(like);
+					createdPerPost.merge(postId, 1L, Long::sum);
+					outcome = LikeOutcome.CREATED;
+				}
+				results.add(new LikeBatchResultDTO(postId, userId, outcome));
+			}
+
+			// Batched inserts, then one counter update per liked post
+			likeRepository.saveAll(newLikes);
+			try {
+				likeRepository.flush();
+			} catch (DataIntegrityViolationException e) {
+				if (!isDuplicateLike(e)) {
+					throw e;
+				}
+				logger.warn("Like batch conflicted with concurrent likes");
+				throw new ValidationException("Some of the posts were liked concurrently, please retry the batch.", e);
+			}
+			if (!likeCounterStore.isWriteBehind()) {
+				createdPerPost.forEach(postRepository::incrementLikeCount);
+			}
+			results.stream().filter(result -> result.getOutcome() == LikeOutcome.CREATED).forEach(result ->
+					eventPublisher.publishEvent(new PostLikedEvent(result.getPostId(), result.getUserId())));
+
+			logger.info("Successfully processed like batch: {} of {} likes created", newLikes.size(), likeDTOs.size());
+			return results;
+
+		} catch (ValidationException e) {
+			logger.warn("Rejected like batch of {} items: {}", likeDTOs.size(), e.getMessage());
+			throw e;
+		} catch (Exception e) {
+			logger.error("Unexpected error occurred while processing like batch of {} items", likeDTOs.size(), e);
+			throw new RuntimeException("An unexpected error occurred while liking the posts.", e);
+		}
+	}
+
+	/**
+	 * Works out why the insert-select did not insert a like.
+	 *
+	 * @param postId - The ID of the post to like.
+	 * @param userId - The ID of the user liking the post.
+	 * @return the exception describing the rejection
+	 */
+	private RuntimeException likeRejection(UUID postId, UUID userId) {
+		Optional<UUID> authorId = postRepository.findAuthorIdByPostId(postId);
+		if (authorId.isEmpty()) {
+			return new PostNotFoundException("Post not found with id: " + postId);
+		}
+		if (authorId.get().equals(userId)) {
+			// Prevent user from liking their own post
+			logger.warn("User with ID: {} tried to like their own post with ID: {}", userId, postId);
+			return new ValidationException("User cannot like their own post.");
+		}
+		if (!userRepository.existsById(userId)) {
+			return new UserNotFoundException("User not found with id: " + userId);
+		}
+		return new IllegalStateException("Like was not inserted for post with id: " + postId);
+	}
+
+	/**
+	 * Checks whether a constraint violation was raised by the unique constraint on
+	 * like_tbl(post_id, user_id).
+	 */
+	private boolean isDuplicateLike(DataIntegrityViolationException e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof ConstraintViolationException) {
+				String constraintName = ((ConstraintViolationException) cause).getConstraintName();
+				return constraintName != null && constraintName.toLowerCase(Locale.ROOT)
+						.contains(LikeRepository.POST_USER_UNIQUE_CONSTRAINT);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Get the count of likes for a list of posts. Counts are served from the
+	 * in-memory LikeCounterStore; until it has been loaded, the IDs are split into
+	 * chunks of at most {@code smarbl.like.count.chunk-size}, each chunk reads
+	 * post_tbl.like_count by primary key and chunks run in parallel on the
+	 * like-count executor.
+	 * Posts without likes are reported with a count of zero, and the result
+	 * follows the order of the requested IDs (duplicates are reported once).
 	 *
 	 * @param postIds - List of post IDs for which like counts are to be fetched
 	 * @return List of LikeCountDTO with like counts for each post
@@ -112,12 +333,20 @@ public class LikeServiceImpl implements LikeService {
 		logger.info("Received request to get like counts for posts with IDs: {}", postIds);
 
 		try {
-			List<Post> posts = postRepository.findAllById(postIds);
+			List<UUID> distinctIds = new ArrayList<>(new LinkedHashSet<>(postIds));
 
-			// Create LikeCountDTO for each post
-			List<LikeCountDTO> likeCounts = posts.stream()
-					.map(post -> new LikeCountDTO(post.getPostId(), likeRepository.countByPost(post)))
-					.collect(Collectors.toList());
+			// Create LikeCountDTO for each requested post, keeping the request order
+			List<LikeCountDTO> likeCounts;
+			if (likeCounterStore.isReady()) {
+				likeCounts = distinctIds.stream()
+						.map(postId -> new LikeCountDTO(postId, likeCounterStore.getLikeCount(postId)))
+						.collect(Collectors.toList());
+			} else {
+				Map<UUID, Long> countsByPost = countLikesInChunks(distinctIds);
+				likeCounts = distinctIds.stream()
+						.map(postId -> new LikeCountDTO(postId, countsByPost.getOrDefault(postId, 0L)))
+						.collect(Collectors.toList());
+			}
 
 			// Log successful like count retrieval
 			logger.info("Successfully retrieved like counts for {} posts", likeCounts.size());
@@ -130,35 +359,109 @@ public class LikeServiceImpl implements LikeService {
 	}
 
 	/**
-	 * Get the list of users who liked a specific post. Logs the successful
-	 * retrieval of users and errors.
+	 * Open a Server-Sent Events stream of like counts for the given posts. The
+	 * stream is registered before the current counts are read, so no like is
+	 * missed in between, and those counts are sent first; after that each post's count is pushed at most
+	 * once per coalescing window, and only when it changed.
+	 *
+	 * @param postIds - The IDs of the posts to follow.
+	 * @return The emitter streaming LikeCountDTO lists.
+	 */
+	@Override
+	public SseEmitter subscribeToLikeCounts(List<UUID> postIds) {
+		List<UUID> distinctIds = new ArrayList<>(new LinkedHashSet<>(postIds));
+		if (distinctIds.isEmpty() || distinctIds.size() > maxStreamPosts) {
+			throw new ValidationException("A like count stream must follow between 1 and " + maxStreamPosts + " posts.");
+		}
+		SseEmitter emitter = likeCountBroadcaster.subscribe(distinctIds,
+				() -> getLikeCountsForPosts(distinctIds));
+		logger.info("Opened like count stream for {} posts", distinctIds.size());
+		return emitter;
+	}
+
+	/**
+	 * Reads the like counters of the given posts, one statement per chunk. A single
+	 * chunk is read on the calling thread.
+	 *
+	 * @param postIds - distinct post IDs to count
+	 * @return like count per post, only for posts that have likes
+	 */
+	private Map<UUID, Long> countLikesInChunks(List<UUID> postIds) {
+		Map<UUID, Long> countsByPost = new HashMap<>();
+		if (postIds.isEmpty()) {
+			return countsByPost;
+		}
+		if (postIds.size() <= countChunkSize) {
+			postRepository.findLikeCountsByPostIds(postIds)
+					.forEach(count -> countsByPost.put(count.getPostId(), count.getLikeCount()));
+			return countsByPost;
+		}
+
+		List<CompletableFuture<List<LikeCountDTO>>> chunks = new ArrayList<>();
+		for (int from = 0; from < postIds.size(); from += countChunkSize) {
+			List<UUID> chunk = postIds.subList(from, Math.min(from + countChunkSize, postIds.size()));
+			chunks.add(CompletableFuture.supplyAsync(() -> postRepository.findLikeCountsByPostIds(chunk),
+					likeCountExecutor));
+		}
+		logger.debug("Reading like counts for {} posts in {} chunks", postIds.size(), chunks.size());
+
+		for (CompletableFuture<List<LikeCountDTO>> chunk : chunks) {
+			chunk.join().forEach(count -> countsByPost.put(count.getPostId(), count.getLikeCount()));
+		}
+		return countsByPost;
+	}
+
+	/**
+	 * Get one page of the users who liked a specific post, in user ID order. Users
+	 * are projected straight into UserDTO with a keyset query that starts after the
+	 * cursor, so no Like, Post or User entity is loaded and every page costs the
+	 * same. The post is only looked up when a page comes back empty, to tell an
+	 * unknown post from one without (more) likes. Logs the successful retrieval of
+	 * users and errors.
 	 *
 	 * @param postId - The ID of the post for which users who liked it are to be
 	 *               fetched.
-	 * @return List of UserDTO containing details of users who liked the post.
+	 * @param limit  - The maximum number of users to return, capped at the
+	 *               configured maximum page size.
+	 * @param cursor - The nextCursor of the previous page, or null for the first
+	 *               page.
+	 * @return A page of UserDTO with the cursor of the next page, which is null on
+	 *         the last page.
 	 */
 	@Override
-	public List<UserDTO> getUsersWhoLikedPost(UUID postId) {
+	@Transactional(readOnly = true)
+	public CursorPageDTO<UserDTO> getUsersWhoLikedPost(UUID postId, int limit, String cursor) {
 		logger.info("Received request to get users who liked post with ID: {}", postId);
 
 		try {
-			// Check if the post exists
-			Post post = postRepository.findById(postId)
-					.orElseThrow(() -> new PostNotFoundException("Post not found with id: " + postId));
+			if (limit < 1) {
+				throw new ValidationException("The limit must be at least 1.");
+			}
+			int pageSize = Math.min(limit, maxPageSize);
+
+			// Fetch one extra row to know whether there is a next page
+			PageRequest page = PageRequest.of(0, pageSize + 1);
+			List<UserDTO> users = cursor == null
+					? likeRepository.findLikersOrderByUserId(postId, page)
+					: likeRepository.findLikersAfterUserId(postId, CursorCodec.decodeUuid(cursor), page);
 
-			// Retrieve the list of likes for the post
-			List<Like> likes = likeRepository.findByPost(post);
+			// Check if the post exists only when there is nothing to return
+			if (users.isEmpty() && !postRepository.existsById(postId)) {
+				throw new PostNotFoundException("Post not found with id: " + postId);
+			}
 
-			// Map likes to UserDTO objects
-			List<UserDTO> users = likes.stream().map(like -> new UserDTO(like.getUser().getUserId(),
-					like.getUser().getUserName(), like.getUser().getUserEmail())).collect(Collectors.toList());
+			String nextCursor = null;
+			if (users.size() > pageSize) {
+				users = users.subList(0, pageSize);
+				nextCursor = CursorCodec.encode(users.get(pageSize - 1).getUserId());
+			}
 
 			// Log successful retrieval of users
 			logger.info("Successfully retrieved {} users who liked post with ID: {}", users.size(), postId);
-			return users;
+			return new CursorPageDTO<>(users, nextCursor);
 
-		} catch (PostNotFoundException e) {
-			// Log specific post not found error
+		} catch (PostNotFoundException | ValidationException e) {
+			// Log specific post not found or bad cursor error
 			logger.error("Error occurred while retrieving users who liked post with ID: {}", postId, e);
 			throw e; // Rethrow the exception after logging
 		} catch (Exception e) {
@@ -1,21 +1,48 @@
 package com.smarbl.service.impl;
 
+import com.smarbl.config.CacheConfig;
+import com.smarbl.dto.CursorPageDTO;
+import com.smarbl.dto.PostBatchResultDTO;
 import com.smarbl.dto.PostDTO;
+import com.smarbl.dto.PostOutcome;
+import com.smarbl.dto.PostSearchResultDTO;
+import com.smarbl.dto.PostSummaryDTO;
+import com.smarbl.dto.TrendingPostDTO;
+import com.smarbl.event.PostCreatedEvent;
 import com.smarbl.exception.PostNotFoundException;
 import com.smarbl.exception.UserNotFoundException;
+import com.smarbl.exception.ValidationException;
 import com.smarbl.model.Post;
 import com.smarbl.model.User;
 import com.smarbl.repository.PostRepository;
 import com.smarbl.repository.UserRepository;
 import com.smarbl.service.PostService;
+import com.smarbl.service.support.CascadeDeleter;
+import com.smarbl.service.support.EntityCacheInvalidator;
+import com.smarbl.service.support.PostSearchIndex;
+import com.smarbl.service.support.TrendingPosts;
+import com.smarbl.util.CursorCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -30,11 +57,39 @@ public class PostServiceImpl implements PostService {
 
     private final PostRepository postRepository;
     private final UserRepository userRepository;
+    private final TrendingPosts trendingPosts;
+    private final PostSearchIndex postSearchIndex;
+    private final CascadeDeleter cascadeDeleter;
+    private final EntityCacheInvalidator entityCacheInvalidator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final int maxPageSize;
+    private final int maxBatchSize;
+    private final int batchChunkSize;
 
     @Autowired
-    public PostServiceImpl(PostRepository postRepository, UserRepository userRepository) {
+    public PostServiceImpl(PostRepository postRepository, UserRepository userRepository,
+                           TrendingPosts trendingPosts, PostSearchIndex postSearchIndex, CascadeDeleter cascadeDeleter,
+                           EntityCacheInvalidator entityCacheInvalidator, ApplicationEventPublisher eventPublisher,
+                           TransactionTemplate transactionTemplate, EntityManager entityManager, Validator validator,
+                           @Value("${smarbl.page.max-limit:500}") int maxPageSize,
+                           @Value("${smarbl.post.batch.max-size:10000}") int maxBatchSize,
+                           @Value("${smarbl.post.batch.chunk-size:1000}") int batchChunkSize) {
         this.postRepository = postRepository;
         this.userRepository = userRepository;
+        this.trendingPosts = trendingPosts;
+        this.postSearchIndex = postSearchIndex;
+        this.cascadeDeleter = cascadeDeleter;
+        this.entityCacheInvalidator = entityCacheInvalidator;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.maxPageSize = maxPageSize;
+        this.maxBatchSize = maxBatchSize;
+        this.batchChunkSize = Math.max(1, batchChunkSize);
     }
 
     /**
@@ -62,6 +117,8 @@ public class PostServiceImpl implements PostService {
 
             // Save the post to the database
             Post savedPost = postRepository.save(post);
+            eventPublisher.publishEvent(new PostCreatedEvent(savedPost.getPostId(), savedPost.getPostTitle(),
+                    savedPost.getPostContent(), savedPost.getCreatedAt()));
 
             // Log the successful creation of the post
             logger.info("Successfully created post with ID: {} for user with ID: {}", savedPost.getPostId(), user.getUserId());
@@ -80,9 +137,104 @@ public class PostServiceImpl implements PostService {
         }
     }
 
+    /**
+     * Create many posts, e.g. when migrating content from another system.
+     * Every referenced user is checked with one IN query up front. The posts are then written in chunks, one
+     * transaction per chunk: post IDs are time-ordered UUIDs generated in memory, so the inserts are JDBC-batched
+     * and append to the primary key index. The results of each chunk are passed to resultSink once it has
+     * committed, so the caller can stream them; if resultSink throws, the remaining chunks are not written.
+     *
+     * @param postDTOs   - The posts to create, each with title, content and userId.
+     * @param resultSink - Receives the outcome of every post, chunk by chunk, in request order.
+     */
+    @Override
+    public void createPosts(List<PostDTO> postDTOs, Consumer<List<PostBatchResultDTO>> resultSink) {
+        logger.info("Received request to create {} posts in a batch", postDTOs.size());
+
+        if (postDTOs.size() > maxBatchSize) {
+            logger.warn("Rejected post batch of {} items, the limit is {}", postDTOs.size(), maxBatchSize);
+            throw new ValidationException("A post batch cannot contain more than " + maxBatchSize + " items.");
+        }
+
+        Set<UUID> userIds = postDTOs.stream().map(PostDTO::getUserId).filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<UUID> existingUsers = new HashSet<>();
+        if (!userIds.isEmpty()) {
+            existingUsers.addAll(userRepository.findExistingUserIds(userIds));
+        }
+
+        int created = 0;
+        for (int from = 0; from < postDTOs.size(); from += batchChunkSize) {
+            int start = from;
+            int end = Math.min(from + batchChunkSize, postDTOs.size());
+            List<PostBatchResultDTO> results;
+            try {
+                results = transactionTemplate.execute(status -> createChunk(postDTOs, start, end, existingUsers));
+            } catch (Exception e) {
+                // A failed chunk is rolled back as a whole; the chunks before and after it are unaffected
+                logger.error("Unexpected error occurred while creating posts {} to {} of a batch", start, end - 1, e);
+                results = new ArrayList<>(end - start);
+                for (int i = start; i < end; i++) {
+                    results.add(new PostBatchResultDTO(i, null, PostOutcome.FAILED, "The post could not be saved."));
+                }
+            }
+            created += (int) results.stream().filter(result -> result.getOutcome() == PostOutcome.CREATED).count();
+            resultSink.accept(results);
+        }
+
+        logger.info("Successfully processed post batch: {} of {} posts created", created, postDTOs.size());
+    }
+
+    /**
+     * Validates and inserts posts [start, end) of a batch in the current transaction.
+     */
+    private List<PostBatchResultDTO> createChunk(List<PostDTO> postDTOs, int start, int end, Set<UUID> existingUsers) {
+        List<PostBatchResultDTO> results = new ArrayList<>(end - start);
+        List<Post> newPosts = new ArrayList<>(end - start);
+        List<Integer> newPostIndexes = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            PostDTO postDTO = postDTOs.get(i);
+            Set<ConstraintViolation<PostDTO>> violations = validator.validate(postDTO);
+            if (!violations.isEmpty()) {
+                String message = violations.stream().map(ConstraintViolation::getMessage).sorted()
+                        .collect(Collectors.joining("; "));
+                results.add(new PostBatchResultDTO(i, null, PostOutcome.INVALID, message));
+            } else if (postDTO.getUserId() == null) {
+                results.add(new PostBatchResultDTO(i, null, PostOutcome.INVALID, "User ID cannot be empty"));
+            } else if (!existingUsers.contains(postDTO.getUserId())) {
+                results.add(new PostBatchResultDTO(i, null, PostOutcome.MISSING_USER,
+                        "User not found with id: " + postDTO.getUserId()));
+            } else {
+                Post post = new Post();
+                post.setPostTitle(postDTO.getPostTitle());
+                post.setPostContent(postDTO.getPostContent());
+                post.setUser(userRepository.getReferenceById(postDTO.getUserId()));
+                newPosts.add(post);
+                newPostIndexes.add(results.size());
+                results.add(null);
+            }
+        }
+
+        postRepository.saveAll(newPosts);
+        postRepository.flush();
+
+        for (int i = 0; i < newPosts.size(); i++) {
+            Post post = newPosts.get(i);
+            int position = newPostIndexes.get(i);
+            results.set(position, new PostBatchResultDTO(start + position, post.getPostId(), PostOutcome.CREATED, null));
+            eventPublisher.publishEvent(new PostCreatedEvent(post.getPostId(), post.getPostTitle(),
+                    post.getPostContent(), post.getCreatedAt()));
+        }
+
+        // The request's persistence context outlives the chunk transaction; without this it would hold every post
+        entityManager.clear();
+        return results;
+    }
+
     /**
      * Delete a post by its ID.
      * Logs the deletion request and ensures the post exists before deleting.
+     * The post's likes are deleted first with bulk deletes in chunks, then the post itself; nothing is loaded.
      *
      * @param postId - The ID of the post to be deleted.
      */
@@ -91,12 +243,7 @@ public class PostServiceImpl implements PostService {
         logger.info("Received request to delete post with ID: {}", postId);
 
         try {
-            // Check if the post exists
-            Post post = postRepository.findById(postId)
-                    .orElseThrow(() -> new PostNotFoundException("Post not found with id: " + postId));
-
-            // Delete the post
-            postRepository.delete(post);
+            cascadeDeleter.deletePost(postId);
 
             // Log the successful deletion
             logger.info("Successfully deleted post with ID: {}", postId);
@@ -115,14 +262,25 @@ public class PostServiceImpl implements PostService {
     /**
      * Get a post by its ID.
      * Logs the retrieval request and ensures the post exists.
+     * The post body is a lazy attribute, so it is only read from the database when includeContent is set.
+     * Posts with content are served from the posts cache, which is evicted when the post is deleted; a post
+     * read before the deletion commits is not cached.
      *
-     * @param postId - The ID of the post to retrieve.
-     * @return PostDTO - The DTO of the retrieved post.
+     * @param postId         - The ID of the post to retrieve.
+     * @param includeContent - Whether to return the post body.
+     * @return PostDTO - The DTO of the retrieved post, with null postContent unless includeContent is set.
      */
     @Override
-    public PostDTO getPostById(UUID postId) {
+    @Transactional(readOnly = true)
+    public PostDTO getPostById(UUID postId, boolean includeContent) {
         logger.info("Received request to get post with ID: {}", postId);
 
+        if (includeContent) {
+            PostDTO cached = entityCacheInvalidator.get(CacheConfig.POSTS, postId, PostDTO.class);
+            if (cached != null) {
+                return cached;
+            }
+        }
         try {
             // Retrieve the post by ID
             Post post = postRepository.findById(postId)
@@ -132,7 +290,13 @@ public class PostServiceImpl implements PostService {
             logger.info("Successfully retrieved post with ID: {}", postId);
 
             // Return the post as a DTO
-            return new PostDTO(post.getPostId(), post.getPostTitle(), post.getPostContent(), post.getUser().getUserId());
+            String postContent = includeContent ? post.getPostContent() : null;
+            PostDTO postDTO = new PostDTO(post.getPostId(), post.getPostTitle(), postContent, post.getUser().getUserId());
+            postDTO.setVersion(post.getVersion());
+            if (includeContent) {
+                entityCacheInvalidator.putIfCurrent(CacheConfig.POSTS, postId, postDTO, post.getVersion());
+            }
+            return postDTO;
 
         } catch (PostNotFoundException e) {
             // Log the exception and rethrow
@@ -146,33 +310,69 @@ public class PostServiceImpl implements PostService {
     }
 
     /**
-     * Get all posts by a specific user.
-     * Logs the request and ensures the user exists before fetching the posts.
+     * Get the version of a post, for answering conditional requests.
+     * Always read from the database, alone and without loading the post: a cached post can briefly be older
+     * than its row, and a stale version would answer 304 for content that has changed.
+     *
+     * @param postId - The ID of the post.
+     * @return long - The current version of the post.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long getPostVersion(UUID postId) {
+        return postRepository.findVersionByPostId(postId)
+                .orElseThrow(() -> new PostNotFoundException("Post not found with id: " + postId));
+    }
+
+    /**
+     * Get one page of the posts of a specific user, newest first.
+     * Posts are read as summaries with a keyset query on (created_at, post_id) that starts after the cursor,
+     * and the user-existence check is folded into the same query.
      *
      * @param userId - The ID of the user for whom to retrieve posts.
-     * @return List<PostDTO> - List of posts for the user.
+     * @param limit  - The maximum number of posts to return, capped at the configured maximum page size.
+     * @param cursor - The nextCursor of the previous page, or null for the first page.
+     * @return CursorPageDTO<PostSummaryDTO> - A page of posts with the cursor of the next page, null on the last page.
      */
     @Override
-    public List<PostDTO> getAllPostsByUser(UUID userId) {
+    @Transactional(readOnly = true)
+    public CursorPageDTO<PostSummaryDTO> getAllPostsByUser(UUID userId, int limit, String cursor) {
         logger.info("Received request to get all posts for user with ID: {}", userId);
 
         try {
-            // Ensure the user exists
-            User user = userRepository.findById(userId)
-                    .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
+            if (limit < 1) {
+                throw new ValidationException("The limit must be at least 1.");
+            }
+            int pageSize = Math.min(limit, maxPageSize);
+
+            // Fetch one extra row to know whether there is a next page
+            PageRequest page = PageRequest.of(0, pageSize + 1);
+            List<PostSummaryDTO> rows;
+            if (cursor == null) {
+                rows = postRepository.findPostSummariesByUser(userId, page);
+            } else {
+                CursorCodec.TimeKey after = CursorCodec.decodeTimeKey(cursor);
+                rows = postRepository.findPostSummariesByUserBefore(userId, after.getCreatedAt(), after.getId(), page);
+            }
+
+            // No row at all means the user does not exist; a single null row means no (more) posts
+            if (rows.isEmpty()) {
+                throw new UserNotFoundException("User not found with id: " + userId);
+            }
+            List<PostSummaryDTO> posts = rows.get(0).getPostId() == null ? List.of() : rows;
 
-            // Fetch all posts by the user
-            List<Post> posts = postRepository.findByUser(user);
+            String nextCursor = null;
+            if (posts.size() > pageSize) {
+                posts = posts.subList(0, pageSize);
+                PostSummaryDTO last = posts.get(pageSize - 1);
+                nextCursor = CursorCodec.encode(last.getCreatedAt(), last.getPostId());
+            }
 
             // Log the successful retrieval of posts
             logger.info("Successfully retrieved {} posts for user with ID: {}", posts.size(), userId);
+            return new CursorPageDTO<>(posts, nextCursor);
 
-            // Map posts to PostDTO and return the list
-            return posts.stream()
-                    .map(post -> new PostDTO(post.getPostId(), post.getPostTitle(), post.getPostContent(), userId))
-                    .collect(Collectors.toList());
-
-        } catch (UserNotFoundException e) {
+        } catch (UserNotFoundException | ValidationException e) {
             // Log the exception and rethrow
             logger.error("Error retrieving posts for user: {}", e.getMessage());
             throw e;
@@ -182,4 +382,106 @@ public class PostServiceImpl implements PostService {
             throw new RuntimeException("An unexpected error occurred while retrieving posts for the user", e);
         }
     }
+
+    /**
+     * Get one page of the feed, newest first: every post, or only the posts of one author.
+     * Each PostDTO carries the author's name and the like count, read with one join of posts and users
+     * straight into DTOs, so a page is one statement whatever its size.
+     *
+     * @param userId - The ID of the author to restrict the feed to, or null for all posts.
+     * @param limit  - The maximum number of posts to return, capped at the configured maximum page size.
+     * @param cursor - The nextCursor of the previous page, or null for the first page.
+     * @return CursorPageDTO<PostDTO> - A page of posts with the cursor of the next page, null on the last page.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<PostDTO> getFeed(UUID userId, int limit, String cursor) {
+        logger.info("Received request to get the feed for user with ID: {}", userId);
+
+        try {
+            if (limit < 1) {
+                throw new ValidationException("The limit must be at least 1.");
+            }
+            int pageSize = Math.min(limit, maxPageSize);
+
+            // Fetch one extra row to know whether there is a next page
+            PageRequest page = PageRequest.of(0, pageSize + 1);
+            CursorCodec.TimeKey after = cursor == null ? null : CursorCodec.decodeTimeKey(cursor);
+            List<PostDTO> posts;
+            if (userId == null) {
+                posts = after == null
+                        ? postRepository.findFeed(page)
+                        : postRepository.findFeedBefore(after.getCreatedAt(), after.getId(), page);
+            } else {
+                posts = after == null
+                        ? postRepository.findFeedByUser(userId, page)
+                        : postRepository.findFeedByUserBefore(userId, after.getCreatedAt(), after.getId(), page);
+            }
+
+            String nextCursor = null;
+            if (posts.size() > pageSize) {
+                posts = posts.subList(0, pageSize);
+                PostDTO last = posts.get(pageSize - 1);
+                nextCursor = CursorCodec.encode(last.getCreatedAt(), last.getPostId());
+            }
+
+            logger.info("Successfully retrieved {} feed posts", posts.size());
+            return new CursorPageDTO<>(posts, nextCursor);
+
+        } catch (ValidationException e) {
+            // Log the exception and rethrow
+            logger.error("Error retrieving the feed: {}", e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            // Log any unexpected exceptions
+            logger.error("Unexpected error occurred while retrieving the feed for user with ID: {}", userId, e);
+            throw new RuntimeException("An unexpected error occurred while retrieving the feed", e);
+        }
+    }
+
+    /**
+     * Search post titles and content.
+     * Served from the embedded full-text index with BM25 ranking, without any database access.
+     *
+     * @param query - The words to search for; posts matching any of them are returned.
+     * @param page  - The zero-based page number.
+     * @param size  - The number of hits per page, capped at the configured maximum page size.
+     * @return PostSearchResultDTO - The total number of matches and the hits of the page, best first.
+     * @throws ValidationException if the page starts beyond the configured maximum result window.
+     */
+    @Override
+    public PostSearchResultDTO searchPosts(String query, int page, int size) {
+        logger.info("Received request to search posts for: {}", query);
+
+        if (query == null || query.isBlank() || page < 0 || size < 1) {
+            throw new ValidationException("A search needs a query, a page of at least 0 and a size of at least 1.");
+        }
+        int pageSize = Math.min(size, maxPageSize);
+        long offset = (long) page * pageSize;
+        if (offset >= postSearchIndex.getMaxResultWindow()) {
+            throw new ValidationException("Search results are only available for the first "
+                    + postSearchIndex.getMaxResultWindow() + " hits.");
+        }
+        PostSearchResultDTO result = postSearchIndex.search(query, (int) offset, pageSize);
+        logger.info("Search for: {} matched {} posts", query, result.getTotalHits());
+        return result;
+    }
+
+    /**
+     * Get the currently trending posts.
+     * Served from the in-memory time-decayed top-K of liked posts, without any database access.
+     *
+     * @param limit - The maximum number of posts to return.
+     * @return List of TrendingPostDTO, highest score first.
+     * @throws ValidationException if the limit is below 1.
+     */
+    @Override
+    public List<TrendingPostDTO> getTrendingPosts(int limit) {
+        if (limit < 1) {
+            throw new ValidationException("The limit must be at least 1.");
+        }
+        List<TrendingPostDTO> trending = trendingPosts.getTrending(limit);
+        logger.info("Returning {} trending posts", trending.size());
+        return trending;
+    }
 }
@@ -1,19 +1,32 @@
 package com.smarbl.service.impl;
 
+import com.smarbl.config.CacheConfig;
+import com.smarbl.dto.CursorPageDTO;
+import com.smarbl.dto.DeletionJobDTO;
 import com.smarbl.dto.UserDTO;
+import com.smarbl.event.UserRegisteredEvent;
+import com.smarbl.event.UserUpdatedEvent;
 import com.smarbl.exception.UserNotFoundException;
+import com.smarbl.exception.ValidationException;
 import com.smarbl.model.User;
 import com.smarbl.repository.UserRepository;
 import com.smarbl.service.UserService;
+import com.smarbl.service.support.CascadeDeleter;
+import com.smarbl.service.support.EntityCacheInvalidator;
+import com.smarbl.service.support.UserDeletionJobs;
+import com.smarbl.util.CursorCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * Service implementation for managing users.
@@ -25,10 +38,23 @@ public class UserServiceImpl implements UserService {
     private static final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
 
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CascadeDeleter cascadeDeleter;
+    private final UserDeletionJobs userDeletionJobs;
+    private final EntityCacheInvalidator entityCacheInvalidator;
+    private final int maxPageSize;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, ApplicationEventPublisher eventPublisher,
+                           CascadeDeleter cascadeDeleter,
+                           UserDeletionJobs userDeletionJobs, EntityCacheInvalidator entityCacheInvalidator,
+                           @Value("${smarbl.page.max-limit:500}") int maxPageSize) {
         this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.cascadeDeleter = cascadeDeleter;
+        this.userDeletionJobs = userDeletionJobs;
+        this.entityCacheInvalidator = entityCacheInvalidator;
+        this.maxPageSize = maxPageSize;
     }
 
     /**
@@ -53,6 +79,7 @@ public class UserServiceImpl implements UserService {
 
             // Save the user to the database
             User savedUser = userRepository.save(user);
+            eventPublisher.publishEvent(new UserRegisteredEvent(savedUser.getUserId(), savedUser.getUserEmail()));
 
             logger.info("Successfully created user with ID: {}", savedUser.getUserId());
 
@@ -84,12 +111,16 @@ public class UserServiceImpl implements UserService {
                     .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
 
             // Update the user's details
+            String previousEmail = existingUser.getUserEmail();
+            String previousPassword = existingUser.getUserPassword();
             existingUser.setUserName(userDTO.getUserName());
             existingUser.setUserEmail(userDTO.getUserEmail());
             existingUser.setUserPassword(userDTO.getUserPassword());  // Hash password in production
 
-            // Save the updated user
-            User updatedUser = userRepository.save(existingUser);
+            // Save the updated user, flushed so the event carries the version being committed
+            User updatedUser = userRepository.saveAndFlush(existingUser);
+            eventPublisher.publishEvent(new UserUpdatedEvent(userId, previousEmail, updatedUser.getUserEmail(),
+                    !Objects.equals(previousPassword, updatedUser.getUserPassword()), updatedUser.getVersion()));
 
             logger.info("Successfully updated user with ID: {}", updatedUser.getUserId());
 
@@ -108,21 +139,17 @@ public class UserServiceImpl implements UserService {
     /**
      * {@inheritDoc}
      * Deletes a user and logs the process.
+     * Likes on the user's posts, likes by the user, the posts and finally the user are removed with bulk
+     * deletes in chunks, so nothing is loaded and every transaction stays short.
      *
      * @param userId The ID of the user to delete.
      */
     @Override
-    @Transactional
     public void deleteUser(UUID userId) {
         logger.info("Received request to delete user with ID: {}", userId);
 
         try {
-            // Retrieve the existing user from the database
-            User existingUser = userRepository.findById(userId)
-                    .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
-
-            // Delete the user from the database
-            userRepository.delete(existingUser);
+            cascadeDeleter.deleteUser(userId, CascadeDeleter.Progress.NONE);
 
             logger.info("Successfully deleted user with ID: {}", userId);
 
@@ -135,9 +162,40 @@ public class UserServiceImpl implements UserService {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * Checks that the user exists and queues the same deletion as {@link #deleteUser(UUID)}.
+     *
+     * @param userId The ID of the user to delete.
+     * @return DeletionJobDTO The queued job, or the job already deleting the user.
+     */
+    @Override
+    public DeletionJobDTO deleteUserAsync(UUID userId) {
+        logger.info("Received request to delete user with ID: {} in the background", userId);
+
+        if (!userRepository.existsById(userId)) {
+            logger.error("Error deleting user: User not found with id: {}", userId);
+            throw new UserNotFoundException("User not found with id: " + userId);
+        }
+        return userDeletionJobs.submit(userId);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param jobId The ID of the deletion job.
+     * @return DeletionJobDTO The job's progress, or null if it is unknown or has expired.
+     */
+    @Override
+    public DeletionJobDTO getDeletionJob(UUID jobId) {
+        return userDeletionJobs.get(jobId);
+    }
+
     /**
      * {@inheritDoc}
      * Retrieves a user by ID and logs the process.
+     * Served from the users cache, which is evicted when the user is updated or deleted; a user read
+     * before such a commit is not cached.
      *
      * @param userId The ID of the user to retrieve.
      * @return UserDTO The DTO of the user.
@@ -146,6 +204,10 @@ public class UserServiceImpl implements UserService {
     public UserDTO getUserById(UUID userId) {
         logger.info("Received request to get user with ID: {}", userId);
 
+        UserDTO cached = entityCacheInvalidator.get(CacheConfig.USERS, userId, UserDTO.class);
+        if (cached != null) {
+            return cached;
+        }
         try {
             // Retrieve the user by ID from the database
             User existingUser = userRepository.findById(userId)
@@ -154,7 +216,10 @@ public class UserServiceImpl implements UserService {
             logger.info("Successfully retrieved user with ID: {}", userId);
 
             // Return the user as a DTO
-            return new UserDTO(existingUser.getUserId(), existingUser.getUserName(), existingUser.getUserEmail());
+            UserDTO userDTO = new UserDTO(existingUser.getUserId(), existingUser.getUserName(), existingUser.getUserEmail());
+            userDTO.setVersion(existingUser.getVersion());
+            entityCacheInvalidator.putIfCurrent(CacheConfig.USERS, userId, userDTO, existingUser.getVersion());
+            return userDTO;
 
         } catch (UserNotFoundException e) {
             logger.error("Error retrieving user: {}", e.getMessage());
@@ -167,27 +232,60 @@ public class UserServiceImpl implements UserService {
 
     /**
      * {@inheritDoc}
-     * Retrieves all users and logs the process.
+     * Always read from the database, alone and without loading the user: a cached user can briefly be older
+     * than its row, and a stale version would answer 304 for a user that has changed.
+     *
+     * @param userId The ID of the user.
+     * @return long The current version of the user.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long getUserVersion(UUID userId) {
+        return userRepository.findVersionByUserId(userId)
+                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
+    }
+
+    /**
+     * {@inheritDoc}
+     * Users are projected straight into UserDTO with a keyset query on the primary key that starts after the
+     * cursor, so no User entity or posts/likes collection is loaded and every page costs the same however
+     * deep it is.
      *
-     * @return List<UserDTO> List of all users.
+     * @param limit  - The maximum number of users to return, capped at the configured maximum page size.
+     * @param cursor - The nextCursor of the previous page, or null for the first page.
+     * @return CursorPageDTO<UserDTO> - A page of users with the cursor of the next page, null on the last page.
      */
     @Override
-    public List<UserDTO> getAllUsers() {
-        logger.info("Received request to get all users");
+    @Transactional(readOnly = true)
+    public CursorPageDTO<UserDTO> getAllUsers(int limit, String cursor) {
+        logger.info("Received request to get a page of users");
 
         try {
-            // Retrieve all users from the database
-            List<User> users = userRepository.findAll();
+            if (limit < 1) {
+                throw new ValidationException("The limit must be at least 1.");
+            }
+            int pageSize = Math.min(limit, maxPageSize);
+
+            // Fetch one extra row to know whether there is a next page
+            PageRequest page = PageRequest.of(0, pageSize + 1);
+            List<UserDTO> users = cursor == null
+                    ? userRepository.findUsersOrderByUserId(page)
+                    : userRepository.findUsersAfterUserId(CursorCodec.decodeUuid(cursor), page);
+
+            String nextCursor = null;
+            if (users.size() > pageSize) {
+                users = users.subList(0, pageSize);
+                nextCursor = CursorCodec.encode(users.get(pageSize - 1).getUserId());
+            }
 
             logger.info("Successfully retrieved {} users", users.size());
+            return new CursorPageDTO<>(users, nextCursor);
 
-            // Map users to UserDTO and return the list
-            return users.stream()
-                    .map(user -> new UserDTO(user.getUserId(), user.getUserName(), user.getUserEmail()))
-                    .collect(Collectors.toList());
-
+        } catch (ValidationException e) {
+            logger.error("Invalid request for a page of users: {}", e.getMessage());
+            throw e;
         } catch (Exception e) {
-            logger.error("Unexpected error occurred while retrieving all users", e);
+            logger.error("Unexpected error occurred while retrieving users", e);
             throw new RuntimeException("An unexpected error occurred while retrieving the users", e);
         }
     }
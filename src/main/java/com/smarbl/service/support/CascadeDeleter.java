@@ -0,0 +1,166 @@
+package com.smarbl.service.support;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.LongConsumer;
+import java.util.function.ToIntFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.smarbl.event.LikesDeletedEvent;
+import com.smarbl.event.PostDeletedEvent;
+import com.smarbl.event.UserDeletedEvent;
+import com.smarbl.exception.PostNotFoundException;
+import com.smarbl.exception.UserNotFoundException;
+import com.smarbl.repository.LikeRepository;
+import com.smarbl.repository.PostRepository;
+import com.smarbl.repository.UserRepository;
+
+/**
+ * Deletes posts and users together with everything that references them, using
+ * set-based deletes instead of loading entities and cascading row by row.
+ * <p>
+ * Rows are deleted in dependency order: likes on the user's posts, likes by the
+ * user, the posts, then the user. Each step works in chunks of smarbl.delete.chunk-size
+ * rows, one short transaction per chunk, so locks are held briefly and memory use
+ * does not grow with the amount of data. A deletion that fails part way leaves the
+ * user or post in place with fewer rows around it and can simply be run again.
+ */
+@Component
+public class CascadeDeleter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CascadeDeleter.class);
+
+    private final LikeRepository likeRepository;
+    private final PostRepository postRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Pageable chunk;
+
+    public CascadeDeleter(LikeRepository likeRepository, PostRepository postRepository,
+                          UserRepository userRepository, TransactionTemplate transactionTemplate,
+                          ApplicationEventPublisher eventPublisher,
+                          @Value("${smarbl.delete.chunk-size:1000}") int chunkSize) {
+        this.likeRepository = likeRepository;
+        this.postRepository = postRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.chunk = PageRequest.of(0, Math.max(1, chunkSize));
+    }
+
+    /**
+     * Receives the number of rows deleted by each committed chunk.
+     */
+    public interface Progress {
+
+        Progress NONE = new Progress() {
+        };
+
+        default void likesDeleted(long count) {
+        }
+
+        default void postsDeleted(long count) {
+        }
+    }
+
+    /**
+     * Deletes a post and its likes.
+     *
+     * @param postId the post ID
+     * @throws PostNotFoundException if the post does not exist
+     */
+    public void deletePost(UUID postId) {
+        if (!postRepository.existsById(postId)) {
+            throw new PostNotFoundException("Post not found with id: " + postId);
+        }
+        long likes = deleteInChunks(page -> likeRepository.findLikeIdsByPostId(postId, page),
+                likeRepository::deleteByLikeIds, count -> { });
+        inTransaction(() -> deletePosts(List.of(postId)));
+        logger.info("Deleted post {} and {} likes on it", postId, likes);
+    }
+
+    /**
+     * Deletes a user, the user's posts, the likes on those posts and the likes the
+     * user gave. Like counters of other users' posts are decremented along the way.
+     *
+     * @param userId   the user ID
+     * @param progress notified after every chunk
+     * @throws UserNotFoundException if the user does not exist
+     */
+    public void deleteUser(UUID userId, Progress progress) {
+        String userEmail = userRepository.findEmailByUserId(userId)
+                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
+
+        // 1. Likes on the user's posts
+        long likes = deleteInChunks(page -> likeRepository.findLikeIdsOnPostsOfUser(userId, page),
+                likeRepository::deleteByLikeIds, progress::likesDeleted);
+
+        // 2. Likes by the user on other posts, one per post, so each costs that post one like. The likes are
+        // locked first and only posts whose like this transaction deletes are decremented, so a like deleted
+        // concurrently elsewhere is not counted down twice
+        likes += deleteInChunks(page -> likeRepository.findLikedPostIdsByUserId(userId, page), postIds -> {
+            List<UUID> likedPostIds = likeRepository.lockLikedPostIds(userId, postIds);
+            if (likedPostIds.isEmpty()) {
+                return 0;
+            }
+            int deleted = likeRepository.deleteByUserIdAndPostIds(userId, likedPostIds);
+            postRepository.decrementLikeCounts(likedPostIds);
+            eventPublisher.publishEvent(new LikesDeletedEvent(likedPostIds));
+            return deleted;
+        }, progress::likesDeleted);
+
+        // 3. The user's posts
+        long posts = deleteInChunks(page -> postRepository.findPostIdsByUserId(userId, page),
+                this::deletePosts, progress::postsDeleted);
+
+        // 4. The user
+        inTransaction(() -> {
+            int deleted = userRepository.deleteByUserId(userId);
+            eventPublisher.publishEvent(new UserDeletedEvent(userId, userEmail));
+            return deleted;
+        });
+        logger.info("Deleted user {} with {} posts and {} likes", userId, posts, likes);
+    }
+
+    /**
+     * Deletes posts with any likes that arrived after their likes were deleted.
+     */
+    private int deletePosts(List<UUID> postIds) {
+        likeRepository.deleteByPostIds(postIds);
+        int deleted = postRepository.deleteByPostIds(postIds);
+        postIds.forEach(postId -> eventPublisher.publishEvent(new PostDeletedEvent(postId)));
+        return deleted;
+    }
+
+    /**
+     * Repeatedly reads a chunk of IDs and deletes it in its own transaction until no IDs are left.
+     */
+    private long deleteInChunks(Function<Pageable, List<UUID>> nextChunk, ToIntFunction<List<UUID>> delete,
+                                LongConsumer onChunk) {
+        long total = 0;
+        List<UUID> ids;
+        while (!(ids = nextChunk.apply(chunk)).isEmpty()) {
+            List<UUID> chunkIds = ids;
+            int deleted = inTransaction(() -> delete.applyAsInt(chunkIds));
+            total += deleted;
+            onChunk.accept(deleted);
+        }
+        return total;
+    }
+
+    private int inTransaction(IntSupplier work) {
+        Integer result = transactionTemplate.execute(status -> work.getAsInt());
+        return result == null ? 0 : result;
+    }
+}
@@ -0,0 +1,120 @@
+package com.smarbl.service.support;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smarbl.config.CacheConfig;
+import com.smarbl.event.PostDeletedEvent;
+import com.smarbl.event.UserDeletedEvent;
+import com.smarbl.event.UserUpdatedEvent;
+
+/**
+ * Evicts cached posts and users once the transaction that changed them has
+ * committed, and keeps reads that loaded the old row from caching it again.
+ * <p>
+ * Every eviction leaves a fence: the lowest entity version that may be cached
+ * under the key from then on, the committed version for an update and no version
+ * at all for a delete. Reads cache through {@link #putIfCurrent}, which compares
+ * the version they loaded with the fence. The eviction and the comparison run
+ * atomically per key, so a read that loaded the row before the commit is refused
+ * however late it finishes. Fences are forgotten after smarbl.cache.fence-ttl-seconds,
+ * which only has to outlast the slowest read.
+ */
+@Component
+public class EntityCacheInvalidator {
+
+    private static final long DELETED = Long.MAX_VALUE;
+
+    private final CacheManager cacheManager;
+    private final Map<List<Object>, Long> fences;
+
+    public EntityCacheInvalidator(CacheManager cacheManager,
+                                  @Value("${smarbl.cache.fence-ttl-seconds:600}") long fenceTtlSeconds,
+                                  @Value("${smarbl.cache.fence-max-size:100000}") long fenceMaxSize) {
+        this.cacheManager = cacheManager;
+        this.fences = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(fenceTtlSeconds))
+                .maximumSize(fenceMaxSize)
+                .<List<Object>, Long>build()
+                .asMap();
+    }
+
+    /**
+     * Returns a cached value.
+     *
+     * @param cacheName the cache
+     * @param key       the entity ID
+     * @param type      the cached type
+     * @return the value, or null if it is not cached
+     */
+    public <T> T get(String cacheName, Object key, Class<T> type) {
+        Cache cache = cacheManager.getCache(cacheName);
+        return cache == null ? null : cache.get(key, type);
+    }
+
+    /**
+     * Caches a value read from the database unless the entity has since been
+     * changed or deleted by a committed transaction.
+     *
+     * @param cacheName the cache
+     * @param key       the entity ID
+     * @param value     the value to cache
+     * @param version   the entity version the value was read at
+     */
+    public void putIfCurrent(String cacheName, Object key, Object value, long version) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return;
+        }
+        fences.compute(List.of(cacheName, key), (fenceKey, fence) -> {
+            if (fence == null || version >= fence) {
+                cache.put(key, value);
+            }
+            return fence;
+        });
+    }
+
+    /**
+     * @param event the post deleted event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostDeleted(PostDeletedEvent event) {
+        evict(CacheConfig.POSTS, event.getPostId(), DELETED);
+    }
+
+    /**
+     * @param event the user updated event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserUpdated(UserUpdatedEvent event) {
+        evict(CacheConfig.USERS, event.getUserId(), event.getVersion());
+    }
+
+    /**
+     * @param event the user deleted event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        evict(CacheConfig.USERS, event.getUserId(), DELETED);
+    }
+
+    private void evict(String cacheName, Object key, long minimumVersion) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return;
+        }
+        // The eviction runs under the fence's lock, so no putIfCurrent can slip in between
+        fences.compute(List.of(cacheName, key), (fenceKey, fence) -> {
+            cache.evict(key);
+            return fence == null ? minimumVersion : Math.max(fence, minimumVersion);
+        });
+    }
+}
@@ -0,0 +1,252 @@
+package com.smarbl.service.support;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.smarbl.dto.LikeDTO;
+import com.smarbl.event.PostLikedEvent;
+import com.smarbl.repository.LikeRepository;
+import com.smarbl.util.Hashing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sharded Bloom filter over the (post, user) pairs in like_tbl.
+ * <p>
+ * When {@link #mightContain(UUID, UUID)} returns false the user has definitely not
+ * liked the post and the existence query can be skipped. The filter is sized once
+ * from the expected number of likes and the target false-positive rate, so its
+ * memory is fixed; shards are lock-free {@link AtomicLongArray}s. It is loaded from
+ * like_tbl before the web server accepts requests and updated after every
+ * committed like. Until loaded, every pair is reported as possibly present.
+ * <p>
+ * Likes are never removed from the filter; a deleted like only costs one extra
+ * existence query.
+ */
+@Component
+public class LikeBloomFilter implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(LikeBloomFilter.class);
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray[] shards;
+    private final int shardMask;
+    private final long bitsPerShard;
+    private final int hashCount;
+    private final LongAdder bitsSet = new LongAdder();
+
+    private final LikeRepository likeRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Counter negatives;
+    private final Counter positives;
+    private final Counter falsePositives;
+    private final AtomicLong insertions = new AtomicLong();
+
+    private volatile boolean ready;
+    private volatile boolean running;
+
+    public LikeBloomFilter(LikeRepository likeRepository, PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${smarbl.like.bloom.expected-insertions:10000000}") long expectedInsertions,
+                           @Value("${smarbl.like.bloom.false-positive-rate:0.01}") double falsePositiveRate,
+                           @Value("${smarbl.like.bloom.shards:64}") int shardCount) {
+        this.likeRepository = likeRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        // Standard sizing: m = -n ln p / (ln 2)^2 bits and k = m / n ln 2 hash functions
+        int shardsRounded = Integer.highestOneBit(Math.max(1, shardCount));
+        if (shardsRounded < shardCount) {
+            shardsRounded <<= 1;
+        }
+        long totalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (LN2 * LN2));
+        long words = Math.max(1, (totalBits / shardsRounded + 63) / 64);
+        this.shards = new AtomicLongArray[shardsRounded];
+        for (int i = 0; i < shardsRounded; i++) {
+            shards[i] = new AtomicLongArray(Math.toIntExact(words));
+        }
+        this.shardMask = shardsRounded - 1;
+        this.bitsPerShard = words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitsPerShard * shardsRounded / expectedInsertions * LN2));
+
+        this.negatives = Counter.builder("smarbl.like.bloom.checks").tag("result", "negative")
+                .description("Like checks by Bloom filter answer").register(meterRegistry);
+        this.positives = Counter.builder("smarbl.like.bloom.checks").tag("result", "positive")
+                .description("Like checks by Bloom filter answer").register(meterRegistry);
+        this.falsePositives = Counter.builder("smarbl.like.bloom.false.positives")
+                .description("Possibly-liked answers the database did not confirm").register(meterRegistry);
+        Gauge.builder("smarbl.like.bloom.memory", this, LikeBloomFilter::getMemoryBytes).baseUnit("bytes")
+                .description("Memory held by the like Bloom filter bit sets").register(meterRegistry);
+        Gauge.builder("smarbl.like.bloom.fpp.estimated", this, LikeBloomFilter::getEstimatedFalsePositiveRate)
+                .description("False-positive rate estimated from the fraction of bits set").register(meterRegistry);
+        Gauge.builder("smarbl.like.bloom.fpp.observed", this, LikeBloomFilter::getObservedFalsePositiveRate)
+                .description("False-positive rate observed on pairs not present in the database")
+                .register(meterRegistry);
+        Gauge.builder("smarbl.like.bloom.insertions", insertions, AtomicLong::get)
+                .description("Pairs added to the like Bloom filter").register(meterRegistry);
+
+        logger.info("Like Bloom filter sized for {} likes at {} false-positive rate: {} shards, {} hashes, {} bytes",
+                expectedInsertions, falsePositiveRate, shardsRounded, hashCount, getMemoryBytes());
+    }
+
+    /**
+     * Checks whether a user may have liked a post.
+     *
+     * @param postId the post ID
+     * @param userId the user ID
+     * @return false if the user has definitely not liked the post
+     */
+    public boolean mightContain(UUID postId, UUID userId) {
+        if (!ready) {
+            return true;
+        }
+        long h1 = hash(postId, userId);
+        long h2 = Hashing.fmix64(h1 ^ 0x9E3779B97F4A7C15L) | 1L;
+        AtomicLongArray shard = shards[(int) (h2 >>> 40) & shardMask];
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitsPerShard);
+            if ((shard.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                negatives.increment();
+                return false;
+            }
+        }
+        positives.increment();
+        return true;
+    }
+
+    /**
+     * Adds a (post, user) pair to the filter.
+     *
+     * @param postId the post ID
+     * @param userId the user ID
+     */
+    public void put(UUID postId, UUID userId) {
+        long h1 = hash(postId, userId);
+        long h2 = Hashing.fmix64(h1 ^ 0x9E3779B97F4A7C15L) | 1L;
+        AtomicLongArray shard = shards[(int) (h2 >>> 40) & shardMask];
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitsPerShard);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            while (true) {
+                long current = shard.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+                if (shard.compareAndSet(word, current, current | mask)) {
+                    bitsSet.increment();
+                    break;
+                }
+            }
+        }
+        insertions.incrementAndGet();
+    }
+
+    /**
+     * Records that a possibly-liked answer was not confirmed by the database.
+     * Answers given before the filter was loaded are not counted.
+     */
+    public void recordFalsePositive() {
+        if (ready) {
+            falsePositives.increment();
+        }
+    }
+
+    /**
+     * Adds a like to the filter once the transaction that inserted it has committed.
+     *
+     * @param event the like event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostLiked(PostLikedEvent event) {
+        put(event.getPostId(), event.getUserId());
+    }
+
+    /**
+     * @return the memory held by the bit sets, in bytes
+     */
+    public long getMemoryBytes() {
+        return bitsPerShard / 8 * shards.length;
+    }
+
+    /**
+     * @return the false-positive rate implied by the fraction of bits set, (set / m)^k
+     */
+    public double getEstimatedFalsePositiveRate() {
+        double fill = bitsSet.doubleValue() / (bitsPerShard * shards.length);
+        return Math.pow(fill, hashCount);
+    }
+
+    /**
+     * @return false positives divided by the checks of pairs not in the database
+     */
+    public double getObservedFalsePositiveRate() {
+        double falsePositiveCount = falsePositives.count();
+        double absent = negatives.count() + falsePositiveCount;
+        return absent == 0 ? 0 : falsePositiveCount / absent;
+    }
+
+    /**
+     * Loads every existing like into the filter.
+     */
+    @Override
+    public void start() {
+        try {
+            long loaded = readOnlyTransaction.execute(status -> {
+                try (Stream<LikeDTO> pairs = likeRepository.streamAllPostUserPairs()) {
+                    AtomicLong count = new AtomicLong();
+                    pairs.forEach(pair -> {
+                        put(pair.getPostId(), pair.getUserId());
+                        count.incrementAndGet();
+                    });
+                    return count.get();
+                }
+            });
+            ready = true;
+            logger.info("Loaded {} likes into the like Bloom filter", loaded);
+        } catch (Exception e) {
+            logger.error("Error loading the like Bloom filter, every like will be checked in the database", e);
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Start before the web server.
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private static long hash(UUID postId, UUID userId) {
+        long post = Hashing.hash(postId);
+        long user = Hashing.fmix64(userId.getMostSignificantBits() ^ Long.rotateLeft(userId.getLeastSignificantBits(), 17));
+        return Hashing.fmix64(post ^ (user * 0xC2B2AE3D27D4EB4FL));
+    }
+}
@@ -0,0 +1,290 @@
+package com.smarbl.service.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.smarbl.dto.LikeBatchResultDTO;
+import com.smarbl.dto.LikeDTO;
+import com.smarbl.exception.PostNotFoundException;
+import com.smarbl.exception.ServiceBusyException;
+import com.smarbl.exception.UserNotFoundException;
+import com.smarbl.exception.ValidationException;
+import com.smarbl.service.LikeService;
+import com.smarbl.util.BoundedRingBuffer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Group-commit pipeline for likes.
+ * <p>
+ * Request threads enqueue likes on a {@link BoundedRingBuffer} and get a future
+ * back. Committer threads drain whatever has accumulated, up to the group size,
+ * and write it with one {@link LikeService#likePosts(List)} transaction, so under
+ * load many likes share one commit. Each future completes once the group has
+ * committed: normally for a created like, or exceptionally with the same exception
+ * {@link LikeService#likePost(LikeDTO)} would have thrown. If a group fails as a
+ * whole its likes are retried one by one, so one bad like cannot fail the others.
+ * <p>
+ * When the buffer is full the like is refused with {@link ServiceBusyException}
+ * instead of waiting. Only active when smarbl.like.async.enabled is true.
+ */
+@Component
+@ConditionalOnProperty(name = "smarbl.like.async.enabled", havingValue = "true")
+public class LikeCommitPipeline implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(LikeCommitPipeline.class);
+
+    private final LikeService likeService;
+    private final BoundedRingBuffer<PendingLike> buffer;
+    private final int committerCount;
+    private final int groupSize;
+    private final long idleParkNanos;
+    private final long retryAfterSeconds;
+
+    private final Timer commitLatency;
+    private final Timer groupCommitTime;
+    private final DistributionSummary groupSizes;
+    private final Counter created;
+    private final Counter rejected;
+    private final Counter failed;
+    private final Counter shed;
+
+    private final List<Thread> committers = new ArrayList<>();
+    // Submissions between their check of running and the end of their offer
+    private final AtomicInteger submitting = new AtomicInteger();
+
+    private volatile boolean running;
+
+    public LikeCommitPipeline(LikeService likeService, MeterRegistry meterRegistry,
+                              @Value("${smarbl.like.async.buffer-size:8192}") int bufferSize,
+                              @Value("${smarbl.like.async.committers:2}") int committerCount,
+                              @Value("${smarbl.like.async.group-size:256}") int groupSize,
+                              @Value("${smarbl.like.async.idle-park-micros:200}") long idleParkMicros,
+                              @Value("${smarbl.like.async.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.likeService = likeService;
+        this.buffer = new BoundedRingBuffer<>(bufferSize);
+        this.committerCount = Math.max(1, committerCount);
+        this.groupSize = Math.max(1, groupSize);
+        this.idleParkNanos = TimeUnit.MICROSECONDS.toNanos(idleParkMicros);
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        this.commitLatency = Timer.builder("smarbl.like.pipeline.commit.latency")
+                .description("Time from enqueueing a like to its group commit").publishPercentileHistogram()
+                .register(meterRegistry);
+        this.groupCommitTime = Timer.builder("smarbl.like.pipeline.group.commit")
+                .description("Duration of one group commit transaction").publishPercentileHistogram()
+                .register(meterRegistry);
+        this.groupSizes = DistributionSummary.builder("smarbl.like.pipeline.group.size")
+                .description("Likes written per group commit").register(meterRegistry);
+        this.created = Counter.builder("smarbl.like.pipeline.likes").tag("result", "created")
+                .description("Likes completed by the commit pipeline").register(meterRegistry);
+        this.rejected = Counter.builder("smarbl.like.pipeline.likes").tag("result", "rejected")
+                .description("Likes completed by the commit pipeline").register(meterRegistry);
+        this.failed = Counter.builder("smarbl.like.pipeline.likes").tag("result", "failed")
+                .description("Likes completed by the commit pipeline").register(meterRegistry);
+        this.shed = Counter.builder("smarbl.like.pipeline.shed")
+                .description("Likes refused because the commit buffer was full").register(meterRegistry);
+        Gauge.builder("smarbl.like.pipeline.queue.depth", buffer, BoundedRingBuffer::size)
+                .description("Likes waiting for a group commit").register(meterRegistry);
+    }
+
+    /**
+     * Enqueues a like for the next group commit.
+     *
+     * @param likeDTO the like, with postId and userId
+     * @return a future completed once the like has been committed, or failed with
+     *         the reason it was not
+     * @throws ServiceBusyException if the buffer is full or the pipeline is stopped
+     */
+    public CompletableFuture<Void> submit(LikeDTO likeDTO) {
+        PendingLike pending = new PendingLike(likeDTO);
+        // Registered before running is read, so stop() waits for this offer before its final drain
+        submitting.incrementAndGet();
+        try {
+            if (!running || !buffer.offer(pending)) {
+                shed.increment();
+                throw new ServiceBusyException("Too many likes are waiting to be committed, please retry.",
+                        retryAfterSeconds);
+            }
+        } finally {
+            submitting.decrementAndGet();
+        }
+        return pending.future;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        for (int i = 0; i < committerCount; i++) {
+            Thread committer = new Thread(this::commitLoop, "like-committer-" + i);
+            committer.setDaemon(true);
+            committer.start();
+            committers.add(committer);
+        }
+        logger.info("Started like commit pipeline: {} committers, groups of up to {}, buffer of {}",
+                committerCount, groupSize, buffer.capacity());
+    }
+
+    /**
+     * Stops accepting likes, waits for the committers to drain the buffer, and
+     * commits any like that was offered while they were exiting.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        // A submission that saw running=true may still be offering; once none is, no more likes can arrive.
+        // An offer never blocks, so this only waits for submitters the scheduler has descheduled
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (submitting.get() > 0) {
+            if (System.nanoTime() - deadline > 0) {
+                logger.warn("Stopping like commit pipeline with {} submissions still in progress", submitting.get());
+                break;
+            }
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        for (Thread committer : committers) {
+            try {
+                committer.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        committers.clear();
+        List<PendingLike> group = new ArrayList<>(groupSize);
+        while (buffer.drainTo(group, groupSize) > 0) {
+            commitGroupSafely(group);
+            group.clear();
+        }
+        logger.info("Stopped like commit pipeline with {} likes left in the buffer", buffer.size());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Start before and stop after the web server, so no accepted like is dropped.
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private void commitLoop() {
+        List<PendingLike> group = new ArrayList<>(groupSize);
+        while (running || buffer.size() > 0) {
+            group.clear();
+            if (buffer.drainTo(group, groupSize) == 0) {
+                LockSupport.parkNanos(idleParkNanos);
+                continue;
+            }
+            commitGroupSafely(group);
+        }
+    }
+
+    private void commitGroupSafely(List<PendingLike> group) {
+        try {
+            commitGroup(group);
+        } catch (Exception e) {
+            // Never let a committer thread die; fail what is left of the group
+            logger.error("Unexpected error in like commit pipeline for a group of {} likes", group.size(), e);
+            group.forEach(pending -> fail(pending, e));
+        }
+    }
+
+    private void commitGroup(List<PendingLike> group) {
+        List<LikeDTO> likeDTOs = group.stream().map(pending -> pending.likeDTO).collect(Collectors.toList());
+        List<LikeBatchResultDTO> results;
+        long started = System.nanoTime();
+        try {
+            results = likeService.likePosts(likeDTOs);
+        } catch (Exception e) {
+            logger.warn("Group commit of {} likes failed, committing them one by one: {}", group.size(),
+                    e.getMessage());
+            group.forEach(this::commitSingle);
+            return;
+        }
+        groupCommitTime.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        groupSizes.record(group.size());
+
+        for (int i = 0; i < group.size(); i++) {
+            PendingLike pending = group.get(i);
+            LikeBatchResultDTO result = results.get(i);
+            switch (result.getOutcome()) {
+                case CREATED:
+                    complete(pending);
+                    break;
+                case DUPLICATE:
+                    reject(pending, new ValidationException("User has already liked this post."));
+                    break;
+                case SELF_LIKE:
+                    reject(pending, new ValidationException("User cannot like their own post."));
+                    break;
+                case MISSING_POST:
+                    reject(pending, new PostNotFoundException("Post not found with id: " + result.getPostId()));
+                    break;
+                case MISSING_USER:
+                    reject(pending, new UserNotFoundException("User not found with id: " + result.getUserId()));
+                    break;
+                default:
+                    fail(pending, new IllegalStateException("Unknown like outcome " + result.getOutcome()));
+            }
+        }
+    }
+
+    private void commitSingle(PendingLike pending) {
+        try {
+            likeService.likePost(pending.likeDTO);
+            complete(pending);
+        } catch (PostNotFoundException | UserNotFoundException | ValidationException e) {
+            reject(pending, e);
+        } catch (Exception e) {
+            fail(pending, e);
+        }
+    }
+
+    private void complete(PendingLike pending) {
+        commitLatency.record(System.nanoTime() - pending.enqueuedNanos, TimeUnit.NANOSECONDS);
+        created.increment();
+        pending.future.complete(null);
+    }
+
+    private void reject(PendingLike pending, RuntimeException reason) {
+        commitLatency.record(System.nanoTime() - pending.enqueuedNanos, TimeUnit.NANOSECONDS);
+        rejected.increment();
+        pending.future.completeExceptionally(reason);
+    }
+
+    private void fail(PendingLike pending, Throwable reason) {
+        failed.increment();
+        pending.future.completeExceptionally(reason);
+    }
+
+    private static final class PendingLike {
+        final LikeDTO likeDTO;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        final long enqueuedNanos = System.nanoTime();
+
+        PendingLike(LikeDTO likeDTO) {
+            this.likeDTO = likeDTO;
+        }
+    }
+}
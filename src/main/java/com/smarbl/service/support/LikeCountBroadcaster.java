@@ -0,0 +1,313 @@
+package com.smarbl.service.support;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.smarbl.dto.LikeCountDTO;
+import com.smarbl.event.LikesDeletedEvent;
+import com.smarbl.event.PostLikedEvent;
+import com.smarbl.repository.PostRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Pushes like counts to Server-Sent Events subscribers.
+ * <p>
+ * Subscribers are indexed by post ID. A committed like only marks its post dirty;
+ * every window the dirty posts are drained, their counts read once from
+ * {@link LikeCounterStore}, and the counts are added to each subscriber's pending
+ * counts. However often a post is liked, a subscriber hears about it at most once
+ * per window.
+ * <p>
+ * Writes never happen on the scheduler thread: each subscriber with pending counts
+ * gets one send task on the bounded likeStreamSendExecutor, which writes everything
+ * pending as one event. A subscriber holds at most one task and one pending count
+ * per post, however slow it is. A subscriber whose write has been blocked longer
+ * than smarbl.like.stream.max-send-ms, or whose task the executor refuses, is
+ * dropped, so a stalled client can only hold up its own stream.
+ * <p>
+ * A new subscription is registered before its first counts are read, so a like
+ * that commits in between is pushed in a later window rather than missed. Nothing
+ * is sent to it until those first counts are pending, so an older count never
+ * follows a newer one.
+ */
+@Component
+public class LikeCountBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(LikeCountBroadcaster.class);
+
+    private static final String EVENT_NAME = "like-count";
+
+    private final Map<UUID, Set<Subscription>> subscriptionsByPost = new ConcurrentHashMap<>();
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> dirtyPosts = ConcurrentHashMap.newKeySet();
+
+    private final LikeCounterStore likeCounterStore;
+    private final PostRepository postRepository;
+    private final Executor sendExecutor;
+    private final long emitterTimeoutMillis;
+    private final long maxSendNanos;
+    private final Counter dropped;
+
+    public LikeCountBroadcaster(LikeCounterStore likeCounterStore, PostRepository postRepository,
+                                @Qualifier("likeStreamSendExecutor") Executor sendExecutor,
+                                MeterRegistry meterRegistry,
+                                @Value("${smarbl.like.stream.timeout-ms:1800000}") long emitterTimeoutMillis,
+                                @Value("${smarbl.like.stream.max-send-ms:10000}") long maxSendMillis) {
+        this.likeCounterStore = likeCounterStore;
+        this.postRepository = postRepository;
+        this.sendExecutor = sendExecutor;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.maxSendNanos = TimeUnit.MILLISECONDS.toNanos(maxSendMillis);
+        this.dropped = Counter.builder("smarbl.like.stream.dropped")
+                .description("Like count streams dropped because they fell behind").register(meterRegistry);
+        Gauge.builder("smarbl.like.stream.subscribers", subscriptions, Set::size)
+                .description("Open like count streams").register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream of like counts for the given posts. The subscription is
+     * registered first and the current counts are read after, then sent as the
+     * first event.
+     *
+     * @param postIds       the posts to follow
+     * @param initialCounts reads the current counts of the posts
+     * @return the emitter to return from the controller
+     */
+    public SseEmitter subscribe(Collection<UUID> postIds, Supplier<List<LikeCountDTO>> initialCounts) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Subscription subscription = new Subscription(emitter, Set.copyOf(postIds));
+        emitter.onCompletion(() -> unregister(subscription));
+        emitter.onTimeout(() -> unregister(subscription));
+        emitter.onError(error -> unregister(subscription));
+
+        subscriptions.add(subscription);
+        for (UUID postId : subscription.postIds) {
+            subscriptionsByPost.compute(postId, (id, subscribers) -> {
+                Set<Subscription> updated = subscribers == null ? ConcurrentHashMap.newKeySet() : subscribers;
+                updated.add(subscription);
+                return updated;
+            });
+        }
+
+        List<LikeCountDTO> counts;
+        try {
+            counts = initialCounts.get();
+        } catch (RuntimeException e) {
+            unregister(subscription);
+            throw e;
+        }
+        // A count pushed since registration wins; if it is older than these, the like that changed
+        // the count committed after that flush drained the dirty posts, so the next flush corrects it
+        counts.forEach(count -> subscription.pendingCounts.putIfAbsent(count.getPostId(), count));
+        subscription.started = true;
+        schedule(subscription);
+        return emitter;
+    }
+
+    /**
+     * Marks a post dirty once the transaction that liked it has committed.
+     *
+     * @param event the like event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostLiked(PostLikedEvent event) {
+        if (subscriptionsByPost.containsKey(event.getPostId())) {
+            dirtyPosts.add(event.getPostId());
+        }
+    }
+
+    /**
+     * Marks posts dirty once the transaction that deleted likes from them has committed.
+     *
+     * @param event the likes deleted event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLikesDeleted(LikesDeletedEvent event) {
+        for (UUID postId : event.getPostIds()) {
+            if (subscriptionsByPost.containsKey(postId)) {
+                dirtyPosts.add(postId);
+            }
+        }
+    }
+
+    /**
+     * Hands the counts of the posts liked since the last window to their subscribers.
+     */
+    @Scheduled(fixedDelayString = "${smarbl.like.stream.window-ms:250}")
+    public void flush() {
+        if (dirtyPosts.isEmpty()) {
+            return;
+        }
+        List<UUID> postIds = new ArrayList<>();
+        for (UUID postId : dirtyPosts) {
+            if (dirtyPosts.remove(postId)) {
+                postIds.add(postId);
+            }
+        }
+
+        try {
+            Set<Subscription> updated = new HashSet<>();
+            for (LikeCountDTO count : readCounts(postIds)) {
+                Set<Subscription> subscribers = subscriptionsByPost.get(count.getPostId());
+                if (subscribers != null) {
+                    for (Subscription subscription : subscribers) {
+                        // Replaces a count the subscriber has not been sent yet
+                        subscription.pendingCounts.put(count.getPostId(), count);
+                        updated.add(subscription);
+                    }
+                }
+            }
+            updated.forEach(this::schedule);
+        } catch (Exception e) {
+            logger.error("Error pushing like counts for {} posts", postIds.size(), e);
+        }
+    }
+
+    /**
+     * Sends a comment to every subscriber so proxies keep the connection open and
+     * closed connections are detected, and drops subscribers stuck in a write.
+     */
+    @Scheduled(fixedDelayString = "${smarbl.like.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        long now = System.nanoTime();
+        for (Subscription subscription : subscriptions) {
+            long sendingSince = subscription.sendingSince;
+            if (sendingSince != 0 && now - sendingSince > maxSendNanos) {
+                drop(subscription, "a write has been blocked for "
+                        + TimeUnit.NANOSECONDS.toMillis(now - sendingSince) + " ms");
+                continue;
+            }
+            subscription.heartbeatDue = true;
+            schedule(subscription);
+        }
+    }
+
+    private List<LikeCountDTO> readCounts(List<UUID> postIds) {
+        if (likeCounterStore.isReady()) {
+            List<LikeCountDTO> counts = new ArrayList<>(postIds.size());
+            postIds.forEach(postId -> counts.add(new LikeCountDTO(postId, likeCounterStore.getLikeCount(postId))));
+            return counts;
+        }
+        return postRepository.findLikeCountsByPostIds(postIds);
+    }
+
+    /**
+     * Queues a send task for the subscriber unless one is queued or running already.
+     */
+    private void schedule(Subscription subscription) {
+        if (!subscription.started || !subscriptions.contains(subscription)
+                || !subscription.scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sendExecutor.execute(() -> sendPending(subscription));
+        } catch (RejectedExecutionException e) {
+            subscription.scheduled.set(false);
+            drop(subscription, "the send queue is full");
+        }
+    }
+
+    private void sendPending(Subscription subscription) {
+        try {
+            List<LikeCountDTO> counts = new ArrayList<>();
+            for (UUID postId : subscription.pendingCounts.keySet()) {
+                LikeCountDTO count = subscription.pendingCounts.remove(postId);
+                if (count != null) {
+                    counts.add(count);
+                }
+            }
+            if (!counts.isEmpty()) {
+                subscription.heartbeatDue = false;
+                send(subscription, SseEmitter.event().name(EVENT_NAME).data(counts));
+            } else if (subscription.heartbeatDue) {
+                subscription.heartbeatDue = false;
+                send(subscription, SseEmitter.event().comment("heartbeat"));
+            }
+        } finally {
+            subscription.scheduled.set(false);
+        }
+        // Counts that arrived while this task was sending need another task
+        if (!subscription.pendingCounts.isEmpty()) {
+            schedule(subscription);
+        }
+    }
+
+    private void send(Subscription subscription, SseEmitter.SseEventBuilder event) {
+        subscription.sendingSince = System.nanoTime();
+        try {
+            subscription.emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Dropping like count stream: {}", e.getMessage());
+            unregister(subscription);
+            subscription.emitter.completeWithError(e);
+        } finally {
+            subscription.sendingSince = 0;
+        }
+    }
+
+    private void drop(Subscription subscription, String reason) {
+        if (!subscriptions.contains(subscription)) {
+            return;
+        }
+        logger.warn("Dropping like count stream that fell behind: {}", reason);
+        dropped.increment();
+        unregister(subscription);
+        subscription.emitter.completeWithError(new IOException("Like count stream fell behind: " + reason));
+    }
+
+    private void unregister(Subscription subscription) {
+        if (!subscriptions.remove(subscription)) {
+            return;
+        }
+        for (UUID postId : subscription.postIds) {
+            subscriptionsByPost.computeIfPresent(postId, (id, subscribers) -> {
+                subscribers.remove(subscription);
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+        }
+        subscription.pendingCounts.clear();
+    }
+
+    private static final class Subscription {
+        final SseEmitter emitter;
+        final Set<UUID> postIds;
+        // Latest unsent count per post; bounded by the posts followed
+        final Map<UUID, LikeCountDTO> pendingCounts = new ConcurrentHashMap<>();
+        // Whether a send task is queued or running
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        // Set once the first counts are pending; nothing is sent before
+        volatile boolean started;
+        volatile boolean heartbeatDue;
+        // System.nanoTime() when the current write started, 0 when not writing
+        volatile long sendingSince;
+
+        Subscription(SseEmitter emitter, Set<UUID> postIds) {
+            this.emitter = emitter;
+            this.postIds = postIds;
+        }
+    }
+}
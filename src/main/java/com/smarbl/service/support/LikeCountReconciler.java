@@ -0,0 +1,130 @@
+package com.smarbl.service.support;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.smarbl.dto.LikeCountDTO;
+import com.smarbl.repository.LikeRepository;
+import com.smarbl.repository.PostRepository;
+
+/**
+ * Periodically recomputes post_tbl.like_count from like_tbl and corrects drift.
+ * <p>
+ * Posts are walked in primary-key order, one bounded chunk per transaction. For
+ * each chunk the stored counters are read first and the likes counted second; a
+ * counter is then only overwritten if it still holds the value read, so a like
+ * committed concurrently is never lost. Skipped posts are picked up by the next run.
+ * <p>
+ * Disabled in write-behind counter mode, where post_tbl.like_count lags the
+ * counter store by design and a correction would race the flusher's deltas.
+ */
+@Component
+@ConditionalOnProperty(name = "smarbl.like.counter.mode", havingValue = "transactional", matchIfMissing = true)
+public class LikeCountReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(LikeCountReconciler.class);
+
+    private final PostRepository postRepository;
+    private final LikeRepository likeRepository;
+    private final LikeCounterStore likeCounterStore;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public LikeCountReconciler(PostRepository postRepository, LikeRepository likeRepository,
+                               LikeCounterStore likeCounterStore, TransactionTemplate transactionTemplate,
+                               @Value("${smarbl.like.reconcile.chunk-size:1000}") int chunkSize) {
+        this.postRepository = postRepository;
+        this.likeRepository = likeRepository;
+        this.likeCounterStore = likeCounterStore;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Reconciles every post's like counter.
+     *
+     * @return the number of post rows whose counter was corrected
+     */
+    @Scheduled(initialDelayString = "${smarbl.like.reconcile.initial-delay-ms:60000}",
+            fixedDelayString = "${smarbl.like.reconcile.interval-ms:3600000}")
+    public int reconcile() {
+        logger.info("Starting like count reconciliation");
+        long started = System.currentTimeMillis();
+        int scanned = 0;
+        int fixed = 0;
+
+        try {
+            UUID lastPostId = null;
+            while (true) {
+                ChunkResult chunk = reconcileChunk(lastPostId);
+                if (chunk.scanned == 0) {
+                    break;
+                }
+                scanned += chunk.scanned;
+                fixed += chunk.corrections.size();
+                chunk.corrections.forEach(likeCounterStore::add);
+                lastPostId = chunk.lastPostId;
+            }
+            logger.info("Like count reconciliation finished: scanned {} posts, fixed {} rows in {} ms",
+                    scanned, fixed, System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            logger.error("Error during like count reconciliation after scanning {} posts, fixed {} rows",
+                    scanned, fixed, e);
+        }
+        return fixed;
+    }
+
+    private ChunkResult reconcileChunk(UUID afterPostId) {
+        return transactionTemplate.execute(status -> {
+            PageRequest page = PageRequest.of(0, chunkSize);
+            List<LikeCountDTO> stored = afterPostId == null
+                    ? postRepository.findLikeCountsOrderByPostId(page)
+                    : postRepository.findLikeCountsAfterPostId(afterPostId, page);
+            if (stored.isEmpty()) {
+                return new ChunkResult(0, null, Map.of());
+            }
+
+            List<UUID> postIds = stored.stream().map(LikeCountDTO::getPostId).collect(Collectors.toList());
+            Map<UUID, Long> actual = new HashMap<>();
+            likeRepository.countLikesGroupedByPost(postIds)
+                    .forEach(count -> actual.put(count.getPostId(), count.getLikeCount()));
+
+            Map<UUID, Long> corrections = new HashMap<>();
+            for (LikeCountDTO count : stored) {
+                long expected = count.getLikeCount();
+                long recomputed = actual.getOrDefault(count.getPostId(), 0L);
+                if (expected != recomputed
+                        && postRepository.compareAndSetLikeCount(count.getPostId(), expected, recomputed) == 1) {
+                    logger.warn("Corrected like count of post {} from {} to {}", count.getPostId(), expected,
+                            recomputed);
+                    corrections.put(count.getPostId(), recomputed - expected);
+                }
+            }
+            return new ChunkResult(stored.size(), postIds.get(postIds.size() - 1), corrections);
+        });
+    }
+
+    private static final class ChunkResult {
+        final int scanned;
+        final UUID lastPostId;
+        final Map<UUID, Long> corrections;
+
+        ChunkResult(int scanned, UUID lastPostId, Map<UUID, Long> corrections) {
+            this.scanned = scanned;
+            this.lastPostId = lastPostId;
+            this.corrections = corrections;
+        }
+    }
+}
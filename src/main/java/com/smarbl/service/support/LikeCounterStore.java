@@ -0,0 +1,304 @@
+package com.smarbl.service.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.smarbl.dto.LikeCountDTO;
+import com.smarbl.event.LikesDeletedEvent;
+import com.smarbl.event.PostDeletedEvent;
+import com.smarbl.event.PostLikedEvent;
+import com.smarbl.repository.LikeRepository;
+import com.smarbl.repository.PostRepository;
+
+/**
+ * Resident like counters keyed by post ID.
+ * <p>
+ * Each post has a cell holding a base count plus a {@link LongAdder} of the likes
+ * counted since, so concurrent likes on a viral post update different stripes
+ * instead of contending on one value. Reads never touch the database once the
+ * store has been loaded.
+ * <p>
+ * smarbl.like.counter.mode selects who writes post_tbl.like_count:
+ * <ul>
+ * <li>transactional (the default): the like transaction itself updates it, so the
+ * store is only a read replica. It is loaded from post_tbl before the web server
+ * accepts requests, counts likes after they commit, and applies the corrections
+ * made by LikeCountReconciler.</li>
+ * <li>write-behind: the like transaction leaves it alone. The store is rebuilt
+ * from like_tbl at startup, and a background flusher periodically writes the
+ * not-yet-persisted part of every counter to post_tbl, a batch of posts per
+ * transaction. The store stops after the web server has shut down, so the final
+ * flush drains every pending delta. Deltas counted since the last flush are lost
+ * if the process dies; like_tbl stays the source of truth and the next start
+ * rebuilds from it.</li>
+ * </ul>
+ * Likes deleted by CascadeDeleter are always decremented in post_tbl by the
+ * deleting transaction, so they only adjust the base here. Counters are local to
+ * this instance.
+ */
+@Component
+public class LikeCounterStore implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(LikeCounterStore.class);
+
+    /**
+     * Value of smarbl.like.counter.mode that enables the write-behind flusher.
+     */
+    public static final String WRITE_BEHIND = "write-behind";
+
+    private final Map<UUID, Cell> cells = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+
+    private final PostRepository postRepository;
+    private final LikeRepository likeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean writeBehind;
+    private final long flushIntervalMs;
+    private final int flushBatchSize;
+
+    private volatile boolean ready;
+    private volatile boolean running;
+    private ScheduledExecutorService flusher;
+
+    public LikeCounterStore(PostRepository postRepository, LikeRepository likeRepository,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${smarbl.like.counter.mode:transactional}") String mode,
+                            @Value("${smarbl.like.counter.flush-interval-ms:1000}") long flushIntervalMs,
+                            @Value("${smarbl.like.counter.flush-batch-size:500}") int flushBatchSize) {
+        this.postRepository = postRepository;
+        this.likeRepository = likeRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.writeBehind = WRITE_BEHIND.equals(mode);
+        this.flushIntervalMs = flushIntervalMs;
+        this.flushBatchSize = Math.max(1, flushBatchSize);
+    }
+
+    /**
+     * @return true once the counters have been loaded and can serve reads
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return true if like counts reach post_tbl through the flusher rather than the like transaction
+     */
+    public boolean isWriteBehind() {
+        return writeBehind;
+    }
+
+    /**
+     * Returns the current like count of a post, or zero if it has no likes.
+     *
+     * @param postId the post ID
+     * @return the like count
+     */
+    public long getLikeCount(UUID postId) {
+        Cell cell = cells.get(postId);
+        return cell == null ? 0L : cell.count();
+    }
+
+    /**
+     * Adds likes to a post's counter. In write-behind mode the delta is persisted by
+     * the next flush.
+     *
+     * @param postId the post ID
+     * @param delta  number of likes to add, negative to remove
+     */
+    public void add(UUID postId, long delta) {
+        cells.computeIfAbsent(postId, id -> new Cell()).applied.add(delta);
+    }
+
+    /**
+     * Adjusts a post's counter by a delta that is already in post_tbl, so it is never flushed.
+     */
+    private void addPersisted(UUID postId, long delta) {
+        cells.computeIfAbsent(postId, id -> new Cell()).base.addAndGet(delta);
+    }
+
+    /**
+     * Counts a like once the transaction that inserted it has committed.
+     *
+     * @param event the like event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostLiked(PostLikedEvent event) {
+        add(event.getPostId(), 1);
+    }
+
+    /**
+     * Uncounts deleted likes once the transaction that deleted them, and decremented
+     * their posts' counters, has committed.
+     *
+     * @param event the likes deleted event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLikesDeleted(LikesDeletedEvent event) {
+        event.getPostIds().forEach(postId -> addPersisted(postId, -1));
+    }
+
+    /**
+     * Drops a post's counter once the transaction that deleted it has committed.
+     *
+     * @param event the post deleted event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostDeleted(PostDeletedEvent event) {
+        cells.remove(event.getPostId());
+    }
+
+    /**
+     * @return the number of likes counted in memory but not yet written to post_tbl
+     */
+    public long getPendingDelta() {
+        if (!writeBehind) {
+            return 0;
+        }
+        long pending = 0;
+        for (Cell cell : cells.values()) {
+            pending += cell.applied.sum() - cell.flushed;
+        }
+        return pending;
+    }
+
+    /**
+     * Writes every pending delta to post_tbl.like_count, one transaction per batch
+     * of posts. A batch that fails is rolled back and retried by the next flush.
+     * Does nothing unless the store is in write-behind mode.
+     *
+     * @return the number of posts whose counter was persisted
+     */
+    public int flush() {
+        if (!writeBehind) {
+            return 0;
+        }
+        synchronized (flushLock) {
+            List<PendingDelta> pending = new ArrayList<>();
+            cells.forEach((postId, cell) -> {
+                long applied = cell.applied.sum();
+                if (applied != cell.flushed) {
+                    pending.add(new PendingDelta(postId, cell, applied));
+                }
+            });
+
+            int flushed = 0;
+            for (int from = 0; from < pending.size(); from += flushBatchSize) {
+                List<PendingDelta> batch = pending.subList(from, Math.min(from + flushBatchSize, pending.size()));
+                try {
+                    transactionTemplate.executeWithoutResult(status -> batch.forEach(delta ->
+                            postRepository.incrementLikeCount(delta.postId, delta.applied - delta.cell.flushed)));
+                    batch.forEach(delta -> delta.cell.flushed = delta.applied);
+                    flushed += batch.size();
+                } catch (Exception e) {
+                    logger.error("Error flushing like counters for {} posts, will retry", batch.size(), e);
+                }
+            }
+            if (flushed > 0) {
+                logger.debug("Flushed like counters for {} posts", flushed);
+            }
+            return flushed;
+        }
+    }
+
+    /**
+     * Loads the counters: from post_tbl.like_count, or in write-behind mode rebuilt
+     * from like_tbl, and then starts the flusher.
+     */
+    @Override
+    public void start() {
+        try {
+            List<LikeCountDTO> counts = writeBehind
+                    ? likeRepository.countAllLikesGroupedByPost()
+                    : postRepository.findAllNonZeroLikeCounts();
+            counts.forEach(count -> addPersisted(count.getPostId(), count.getLikeCount()));
+            ready = true;
+            logger.info("Loaded like counters for {} posts from {}", counts.size(),
+                    writeBehind ? "like_tbl" : "post_tbl");
+        } catch (Exception e) {
+            logger.error("Error loading like counters, counts will be read from the database", e);
+        }
+
+        if (writeBehind) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "like-counter-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        running = true;
+    }
+
+    /**
+     * Stops the flusher and drains the remaining deltas.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(flushIntervalMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Draining {} pending like counter deltas", getPendingDelta());
+        flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Start before the web server so no like is counted twice while loading, and
+     * stop after it so the final flush sees every like.
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private static final class Cell {
+        // Part of the count already in post_tbl when counted: loaded at startup or decremented by deletes
+        final AtomicLong base = new AtomicLong();
+        final LongAdder applied = new LongAdder();
+        // Part of applied written to post_tbl; only written under flushLock
+        volatile long flushed;
+
+        long count() {
+            return base.get() + applied.sum();
+        }
+    }
+
+    private static final class PendingDelta {
+        final UUID postId;
+        final Cell cell;
+        final long applied;
+
+        PendingDelta(UUID postId, Cell cell, long applied) {
+            this.postId = postId;
+            this.cell = cell;
+            this.applied = applied;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.smarbl.service.support;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.smarbl.exception.RateLimitedException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Token-bucket limits on login attempts, per client IP and per email, checked
+ * before the login touches the database or bcrypt.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the time at which it will be
+ * full again (the GCRA form of a token bucket): an attempt is one CAS that moves
+ * that time forward by one token's refill interval, and is refused when doing so
+ * would overdraw the burst. No locks are taken, and a bucket needs no refill task.
+ * <p>
+ * Buckets live in size-bounded Caffeine caches and are dropped once idle for long
+ * enough to have refilled, so memory stays flat however many distinct emails or
+ * addresses are tried. Under more distinct keys than the bound, the least recently
+ * used buckets are evicted early and start full again.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final Limit perIp;
+    private final Limit perEmail;
+
+    @Autowired
+    public LoginRateLimiter(MeterRegistry meterRegistry,
+                            @Value("${smarbl.login.limit.ip.burst:20}") int ipBurst,
+                            @Value("${smarbl.login.limit.ip.per-minute:10}") int ipPerMinute,
+                            @Value("${smarbl.login.limit.email.burst:5}") int emailBurst,
+                            @Value("${smarbl.login.limit.email.per-minute:1}") int emailPerMinute,
+                            @Value("${smarbl.login.limit.max-keys:100000}") long maxKeys) {
+        this(meterRegistry, ipBurst, ipPerMinute, emailBurst, emailPerMinute, maxKeys, Ticker.systemTicker());
+    }
+
+    /**
+     * @param ticker the nanosecond clock the buckets and their expiry are timed with
+     */
+    LoginRateLimiter(MeterRegistry meterRegistry, int ipBurst, int ipPerMinute, int emailBurst,
+                     int emailPerMinute, long maxKeys, Ticker ticker) {
+        this.perIp = new Limit("ip", ipBurst, ipPerMinute, maxKeys, ticker, meterRegistry);
+        this.perEmail = new Limit("email", emailBurst, emailPerMinute, maxKeys, ticker, meterRegistry);
+    }
+
+    /**
+     * Takes one login attempt from the client's and the email's buckets.
+     *
+     * @param email    the email being logged in to, may be null
+     * @param clientIp the client's address, may be null
+     * @throws RateLimitedException if either bucket is empty
+     */
+    public void acquire(String email, String clientIp) {
+        if (clientIp != null) {
+            perIp.acquire(clientIp);
+        }
+        if (email != null) {
+            perEmail.acquire(email.trim().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * One limit: a burst of attempts, refilled at a steady rate.
+     */
+    private static final class Limit {
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        private final Ticker ticker;
+        private final Cache<String, AtomicLong> buckets;
+        private final Counter refused;
+
+        Limit(String name, int burst, int perMinute, long maxKeys, Ticker ticker, MeterRegistry meterRegistry) {
+            this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, perMinute);
+            // How far ahead of now a bucket's full-again time may run: burst - 1 tokens already taken
+            this.toleranceNanos = intervalNanos * (Math.max(1, burst) - 1);
+            this.ticker = ticker;
+            // An idle bucket is full again after burst intervals, so it can be forgotten then
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxKeys)
+                    .expireAfterAccess(Duration.ofNanos(toleranceNanos + intervalNanos))
+                    .ticker(ticker)
+                    .build();
+            this.refused = Counter.builder("smarbl.login.rate-limited").tag("key", name)
+                    .description("Login attempts refused by the rate limiter").register(meterRegistry);
+            Gauge.builder("smarbl.login.rate-limit.buckets", buckets, Cache::estimatedSize).tag("key", name)
+                    .description("Login rate limit buckets in memory").register(meterRegistry);
+        }
+
+        void acquire(String key) {
+            long now = ticker.read();
+            AtomicLong fullAt = buckets.get(key, k -> new AtomicLong(now));
+            while (true) {
+                long current = fullAt.get();
+                // A bucket whose full-again time has passed is full; compare by difference, nanoTime may wrap
+                long from = current - now < 0 ? now : current;
+                long wait = from - now - toleranceNanos;
+                if (wait > 0) {
+                    refused.increment();
+                    throw new RateLimitedException("Too many login attempts, please retry later.",
+                            Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1)));
+                }
+                if (fullAt.compareAndSet(current, from + intervalNanos)) {
+                    return;
+                }
+            }
+        }
+    }
+}
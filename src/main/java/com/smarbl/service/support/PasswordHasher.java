@@ -0,0 +1,172 @@
+package com.smarbl.service.support;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import com.smarbl.exception.ServiceBusyException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Hashes and verifies passwords with bcrypt on the bounded passwordHashExecutor,
+ * so a burst of logins cannot occupy every request thread with CPU-bound work.
+ * When the executor's queue is full the work is refused with
+ * {@link ServiceBusyException}.
+ * <p>
+ * The work factor is smarbl.password.cost when set. Otherwise it is calibrated at
+ * startup: the largest cost between smarbl.password.min-cost and max-cost whose
+ * hash takes no longer than smarbl.password.target-hash-ms on this machine. Pin the
+ * cost when instances run on different hardware, so they agree on it. Hashes stored
+ * with a lower cost are reported by {@link #needsRehash(String)} so they can be
+ * strengthened on the next successful login; stronger hashes are never weakened.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHasher.class);
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+
+    private final ThreadPoolTaskExecutor executor;
+    private final long retryAfterSeconds;
+    private final int cost;
+    private final BCryptPasswordEncoder encoder;
+
+    private final Timer encodeTime;
+    private final Timer verifyTime;
+    private final Counter rejected;
+
+    public PasswordHasher(@Qualifier("passwordHashExecutor") ThreadPoolTaskExecutor executor,
+                          MeterRegistry meterRegistry,
+                          @Value("${smarbl.password.cost:0}") int fixedCost,
+                          @Value("${smarbl.password.target-hash-ms:100}") long targetHashMillis,
+                          @Value("${smarbl.password.min-cost:10}") int minCost,
+                          @Value("${smarbl.password.max-cost:16}") int maxCost,
+                          @Value("${smarbl.password.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.executor = executor;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.cost = fixedCost > 0 ? fixedCost : calibrate(targetHashMillis, minCost, maxCost);
+        this.encoder = new BCryptPasswordEncoder(cost);
+
+        this.encodeTime = Timer.builder("smarbl.password.hash").tag("operation", "encode")
+                .description("Time to hash or verify one password").publishPercentileHistogram()
+                .register(meterRegistry);
+        this.verifyTime = Timer.builder("smarbl.password.hash").tag("operation", "verify")
+                .description("Time to hash or verify one password").publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("smarbl.password.rejected")
+                .description("Password hashes refused because the hashing queue was full").register(meterRegistry);
+        Gauge.builder("smarbl.password.queue.depth", executor,
+                        e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("Passwords waiting to be hashed or verified").register(meterRegistry);
+        Gauge.builder("smarbl.password.cost", this, PasswordHasher::getCost)
+                .description("bcrypt work factor used for new hashes").register(meterRegistry);
+    }
+
+    /**
+     * @return the bcrypt work factor used for new hashes
+     */
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * Hashes a password.
+     *
+     * @param rawPassword the password
+     * @return a future completed with the bcrypt hash
+     * @throws ServiceBusyException if too many passwords are waiting to be hashed
+     */
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(() -> encodeTime.record(() -> encoder.encode(rawPassword)));
+    }
+
+    /**
+     * Checks a password against a stored hash.
+     *
+     * @param rawPassword the password
+     * @param storedHash  the stored bcrypt hash
+     * @return a future completed with whether the password matches
+     * @throws ServiceBusyException if too many passwords are waiting to be verified
+     */
+    public CompletableFuture<Boolean> matches(String rawPassword, String storedHash) {
+        return submit(() -> verifyTime.record(() -> encoder.matches(rawPassword, storedHash)));
+    }
+
+    /**
+     * Hashes a password on the calling thread. For callers already running on the
+     * hashing executor, such as a rehash right after a verification.
+     *
+     * @param rawPassword the password
+     * @return the bcrypt hash
+     */
+    public String encodeNow(String rawPassword) {
+        return encodeTime.record(() -> encoder.encode(rawPassword));
+    }
+
+    /**
+     * @param storedHash a stored bcrypt hash
+     * @return whether the hash was made with a lower work factor than the current one
+     */
+    public boolean needsRehash(String storedHash) {
+        if (storedHash == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(storedHash);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) < cost;
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(work, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceBusyException("Too many passwords are waiting to be checked, please retry.",
+                    retryAfterSeconds);
+        }
+    }
+
+    /**
+     * Times one hash at the minimum cost and picks the largest cost that stays
+     * within the target; each step up doubles the work.
+     */
+    private static int calibrate(long targetHashMillis, int minCost, int maxCost) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minCost);
+        // The first hash warms up the JIT; time the fastest of the rest
+        probe.encode(CALIBRATION_PASSWORD);
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long started = System.nanoTime();
+            probe.encode(CALIBRATION_PASSWORD);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - started);
+        }
+
+        long targetNanos = TimeUnit.MILLISECONDS.toNanos(targetHashMillis);
+        int cost = minCost;
+        long estimatedNanos = bestNanos;
+        while (cost < maxCost && estimatedNanos * 2 <= targetNanos) {
+            cost++;
+            estimatedNanos *= 2;
+        }
+        logger.info("Calibrated bcrypt cost {}: about {} ms per hash (cost {} took {} ms, target {} ms)", cost,
+                TimeUnit.NANOSECONDS.toMillis(estimatedNanos), minCost, TimeUnit.NANOSECONDS.toMillis(bestNanos),
+                targetHashMillis);
+        return cost;
+    }
+}
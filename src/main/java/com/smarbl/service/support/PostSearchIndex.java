@@ -0,0 +1,358 @@
+package com.smarbl.service.support;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.similarities.BM25Similarity;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.smarbl.dto.PostDTO;
+import com.smarbl.dto.PostSearchHitDTO;
+import com.smarbl.dto.PostSearchResultDTO;
+import com.smarbl.event.PostCreatedEvent;
+import com.smarbl.event.PostDeletedEvent;
+import com.smarbl.repository.PostRepository;
+
+/**
+ * Embedded full-text index over post titles and content, ranked with BM25.
+ * <p>
+ * The index is a Lucene directory on local disk. Posts are added and removed after
+ * the transactions that create and delete them commit; searches see them within
+ * one refresh interval and segments are committed to disk periodically and on
+ * shutdown. Each commit records the newest indexed creation time, so on restart
+ * only posts created since then are read from the database. An empty index is
+ * built from post_tbl before the web server accepts requests.
+ * <p>
+ * The index is local to this instance. Posts deleted while it was not running
+ * stay searchable until the index is rebuilt with smarbl.search.rebuild-on-start.
+ */
+@Component
+public class PostSearchIndex implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostSearchIndex.class);
+
+    private static final String ID = "id";
+    private static final String TITLE = "title";
+    private static final String CONTENT = "content";
+    private static final String WATERMARK = "createdAtWatermark";
+    private static final int MAX_QUERY_TERMS = 32;
+
+    // Re-read a little before the watermark so posts committed out of creation order are not missed
+    private static final Duration CATCH_UP_MARGIN = Duration.ofMinutes(1);
+
+    private final PostRepository postRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Path indexPath;
+    private final boolean rebuildOnStart;
+    private final float titleBoost;
+    private final int maxResultWindow;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final AtomicReference<Instant> watermark = new AtomicReference<>(Instant.EPOCH);
+
+    private volatile IndexWriter writer;
+    private volatile SearcherManager searcherManager;
+    private volatile boolean running;
+
+    public PostSearchIndex(PostRepository postRepository, PlatformTransactionManager transactionManager,
+                           @Value("${smarbl.search.index-dir:data/search-index}") String indexDir,
+                           @Value("${smarbl.search.rebuild-on-start:false}") boolean rebuildOnStart,
+                           @Value("${smarbl.search.title-boost:2.0}") float titleBoost,
+                           @Value("${smarbl.search.max-result-window:1000}") int maxResultWindow) {
+        this.postRepository = postRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.indexPath = Paths.get(indexDir);
+        this.rebuildOnStart = rebuildOnStart;
+        this.titleBoost = titleBoost;
+        this.maxResultWindow = maxResultWindow;
+    }
+
+    /**
+     * @return the number of best hits a search can page through
+     */
+    public int getMaxResultWindow() {
+        return maxResultWindow;
+    }
+
+    /**
+     * Searches titles and content for any of the words in the query.
+     *
+     * @param query  the user's query, analyzed like the indexed text
+     * @param offset the number of hits to skip
+     * @param limit  the maximum number of hits to return
+     * @return the total number of matches and the requested hits, best first
+     * @throws IllegalStateException if the index is not open
+     */
+    public PostSearchResultDTO search(String query, int offset, int limit) {
+        SearcherManager manager = searcherManager;
+        if (manager == null) {
+            throw new IllegalStateException("The post search index is not available");
+        }
+        List<String> terms = analyze(query);
+        if (terms.isEmpty()) {
+            return new PostSearchResultDTO(0, List.of());
+        }
+
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        for (String term : terms) {
+            builder.add(new BoostQuery(new TermQuery(new Term(TITLE, term)), titleBoost), BooleanClause.Occur.SHOULD);
+            builder.add(new TermQuery(new Term(CONTENT, term)), BooleanClause.Occur.SHOULD);
+        }
+
+        int window = (int) Math.min((long) offset + limit, maxResultWindow);
+        try {
+            IndexSearcher searcher = manager.acquire();
+            try {
+                TopDocs top = searcher.search(builder.build(), Math.max(1, window));
+                StoredFields storedFields = searcher.storedFields();
+                List<PostSearchHitDTO> hits = new ArrayList<>();
+                for (int i = offset; i < top.scoreDocs.length && i < window; i++) {
+                    ScoreDoc scoreDoc = top.scoreDocs[i];
+                    Document document = storedFields.document(scoreDoc.doc, Set.of(ID, TITLE));
+                    hits.add(new PostSearchHitDTO(UUID.fromString(document.get(ID)), document.get(TITLE),
+                            scoreDoc.score));
+                }
+                return new PostSearchResultDTO(top.totalHits.value, hits);
+            } finally {
+                manager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Indexes a post once the transaction that created it has committed.
+     *
+     * @param event the post created event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostCreated(PostCreatedEvent event) {
+        IndexWriter indexWriter = writer;
+        if (indexWriter == null) {
+            return;
+        }
+        try {
+            index(indexWriter, event.getPostId(), event.getPostTitle(), event.getPostContent(), event.getCreatedAt());
+        } catch (IOException e) {
+            logger.error("Error indexing post {}", event.getPostId(), e);
+        }
+    }
+
+    /**
+     * Removes a post from the index once the transaction that deleted it has committed.
+     *
+     * @param event the post deleted event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostDeleted(PostDeletedEvent event) {
+        IndexWriter indexWriter = writer;
+        if (indexWriter == null) {
+            return;
+        }
+        try {
+            indexWriter.deleteDocuments(new Term(ID, event.getPostId().toString()));
+        } catch (IOException e) {
+            logger.error("Error removing post {} from the search index", event.getPostId(), e);
+        }
+    }
+
+    /**
+     * Makes recent changes visible to searches.
+     */
+    @Scheduled(fixedDelayString = "${smarbl.search.refresh-ms:1000}")
+    public void refresh() {
+        SearcherManager manager = searcherManager;
+        if (manager == null) {
+            return;
+        }
+        try {
+            manager.maybeRefresh();
+        } catch (IOException e) {
+            logger.error("Error refreshing the post search index", e);
+        }
+    }
+
+    /**
+     * Writes buffered changes to disk segments so a restart does not have to redo them.
+     */
+    @Scheduled(fixedDelayString = "${smarbl.search.commit-ms:30000}")
+    public void commit() {
+        IndexWriter indexWriter = writer;
+        if (indexWriter == null || !indexWriter.hasUncommittedChanges()) {
+            return;
+        }
+        try {
+            indexWriter.setLiveCommitData(Map.of(WATERMARK, watermark.get().toString()).entrySet());
+            indexWriter.commit();
+        } catch (IOException e) {
+            logger.error("Error committing the post search index", e);
+        }
+    }
+
+    /**
+     * Opens the index and indexes the posts created since its last commit.
+     */
+    @Override
+    public void start() {
+        try {
+            Files.createDirectories(indexPath);
+            IndexWriterConfig config = new IndexWriterConfig(analyzer);
+            config.setSimilarity(new BM25Similarity());
+            config.setOpenMode(rebuildOnStart ? IndexWriterConfig.OpenMode.CREATE
+                    : IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+            IndexWriter indexWriter = new IndexWriter(FSDirectory.open(indexPath), config);
+
+            Instant since = Instant.EPOCH;
+            Iterable<Map.Entry<String, String>> commitData = indexWriter.getLiveCommitData();
+            if (indexWriter.getDocStats().numDocs > 0 && postRepository.count() == 0) {
+                // The database was recreated (e.g. in-memory H2), so nothing in the index is valid
+                logger.warn("Post search index at {} has posts but post_tbl is empty, clearing it", indexPath);
+                indexWriter.deleteAll();
+            } else if (commitData != null) {
+                for (Map.Entry<String, String> entry : commitData) {
+                    if (WATERMARK.equals(entry.getKey())) {
+                        since = Instant.parse(entry.getValue());
+                    }
+                }
+            }
+            watermark.set(since);
+            long caughtUp = catchUp(indexWriter, since.minus(CATCH_UP_MARGIN));
+
+            writer = indexWriter;
+            commit();
+            searcherManager = new SearcherManager(indexWriter, null);
+            logger.info("Opened post search index at {} with {} posts, indexed {} new posts",
+                    indexPath.toAbsolutePath(), indexWriter.getDocStats().numDocs, caughtUp);
+        } catch (Exception e) {
+            logger.error("Error opening the post search index at {}, search is unavailable", indexPath, e);
+        }
+        running = true;
+    }
+
+    /**
+     * Commits and closes the index.
+     */
+    @Override
+    public void stop() {
+        try {
+            commit();
+            if (searcherManager != null) {
+                searcherManager.close();
+            }
+            if (writer != null) {
+                writer.close();
+            }
+        } catch (IOException e) {
+            logger.error("Error closing the post search index", e);
+        } finally {
+            searcherManager = null;
+            writer = null;
+            running = false;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Start before the web server.
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private long catchUp(IndexWriter indexWriter, Instant since) {
+        Instant from = since.isBefore(Instant.EPOCH) ? Instant.EPOCH : since;
+        return readOnlyTransaction.execute(status -> {
+            try (Stream<PostDTO> posts = postRepository.streamPostsCreatedAfter(from)) {
+                AtomicLong count = new AtomicLong();
+                posts.forEach(post -> {
+                    try {
+                        index(indexWriter, post.getPostId(), post.getPostTitle(), post.getPostContent(),
+                                post.getCreatedAt());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    count.incrementAndGet();
+                });
+                return count.get();
+            }
+        });
+    }
+
+    private void index(IndexWriter indexWriter, UUID postId, String title, String content, Instant createdAt)
+            throws IOException {
+        Document document = new Document();
+        document.add(new StringField(ID, postId.toString(), Field.Store.YES));
+        document.add(new TextField(TITLE, title, Field.Store.NO));
+        document.add(new StoredField(TITLE, title));
+        document.add(new TextField(CONTENT, content, Field.Store.NO));
+        indexWriter.updateDocument(new Term(ID, postId.toString()), document);
+        if (createdAt != null) {
+            watermark.accumulateAndGet(createdAt, (current, candidate) -> candidate.isAfter(current) ? candidate : current);
+        }
+    }
+
+    private List<String> analyze(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        try (TokenStream stream = analyzer.tokenStream(CONTENT, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken() && terms.size() < MAX_QUERY_TERMS) {
+                terms.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new ArrayList<>(terms);
+    }
+}
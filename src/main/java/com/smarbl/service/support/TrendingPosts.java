@@ -0,0 +1,184 @@
+package com.smarbl.service.support;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.smarbl.dto.TrendingPostDTO;
+import com.smarbl.event.PostDeletedEvent;
+import com.smarbl.event.PostLikedEvent;
+import com.smarbl.util.Hashing;
+
+/**
+ * Streaming top-K of the most liked posts, with older likes counting exponentially less.
+ * <p>
+ * Every committed like adds a weight to a count-min sketch of per-post scores and
+ * then re-ranks the post against a min-heap holding the K highest scores. Decay
+ * uses forward decay: a like at time t is added with weight e^(λ(t - t0)), so
+ * stored scores never have to be decayed individually; dividing by e^(λ(now - t0))
+ * gives the score as of now. When the weights grow too large everything is
+ * rescaled to a new t0.
+ * <p>
+ * Memory is fixed by the sketch dimensions and K, whatever the number of posts.
+ * Reads copy K entries and never touch the database. Scores are local to this
+ * instance and start empty on restart.
+ */
+@Component
+public class TrendingPosts {
+
+    // Rescale before e^(λ(t - t0)) gets anywhere near overflowing a double
+    private static final double MAX_EXPONENT = 40;
+
+    private final double[][] sketch;
+    private final long[] seeds;
+    private final int widthMask;
+    private final int topK;
+    private final double lambdaPerMilli;
+
+    private final PriorityQueue<Entry> heap = new PriorityQueue<>(Comparator.comparingDouble(entry -> entry.score));
+    private final Map<UUID, Entry> heapIndex = new HashMap<>();
+    private final Object lock = new Object();
+
+    private long epochMillis = System.currentTimeMillis();
+
+    public TrendingPosts(@Value("${smarbl.trending.top-k:100}") int topK,
+                         @Value("${smarbl.trending.half-life:PT1H}") Duration halfLife,
+                         @Value("${smarbl.trending.sketch-width:16384}") int sketchWidth,
+                         @Value("${smarbl.trending.sketch-depth:4}") int sketchDepth) {
+        int width = Integer.highestOneBit(Math.max(2, sketchWidth));
+        if (width < sketchWidth) {
+            width <<= 1;
+        }
+        this.sketch = new double[Math.max(1, sketchDepth)][width];
+        this.seeds = new long[sketch.length];
+        for (int row = 0; row < seeds.length; row++) {
+            seeds[row] = Hashing.fmix64(0x9E3779B97F4A7C15L * (row + 1));
+        }
+        this.widthMask = width - 1;
+        this.topK = Math.max(1, topK);
+        this.lambdaPerMilli = Math.log(2) / halfLife.toMillis();
+    }
+
+    /**
+     * Counts a like once the transaction that inserted it has committed.
+     *
+     * @param event the like event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostLiked(PostLikedEvent event) {
+        record(event.getPostId(), System.currentTimeMillis());
+    }
+
+    /**
+     * Stops ranking a post once the transaction that deleted it has committed.
+     *
+     * @param event the post deleted event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostDeleted(PostDeletedEvent event) {
+        synchronized (lock) {
+            Entry entry = heapIndex.remove(event.getPostId());
+            if (entry != null) {
+                heap.remove(entry);
+            }
+        }
+    }
+
+    /**
+     * Adds one like to a post's score.
+     *
+     * @param postId   the post ID
+     * @param atMillis when the like happened
+     */
+    public void record(UUID postId, long atMillis) {
+        long hash = Hashing.hash(postId);
+        synchronized (lock) {
+            if (lambdaPerMilli * (atMillis - epochMillis) > MAX_EXPONENT) {
+                rescale(atMillis);
+            }
+            double weight = Math.exp(lambdaPerMilli * (atMillis - epochMillis));
+
+            // Count-min update: add to one cell per row, the estimate is the smallest cell
+            double estimate = Double.MAX_VALUE;
+            for (int row = 0; row < sketch.length; row++) {
+                int column = (int) Hashing.fmix64(hash ^ seeds[row]) & widthMask;
+                sketch[row][column] += weight;
+                estimate = Math.min(estimate, sketch[row][column]);
+            }
+
+            Entry entry = heapIndex.get(postId);
+            if (entry != null) {
+                heap.remove(entry);
+                entry.score = estimate;
+                heap.add(entry);
+            } else if (heap.size() < topK) {
+                add(postId, estimate);
+            } else if (estimate > heap.peek().score) {
+                heapIndex.remove(heap.poll().postId);
+                add(postId, estimate);
+            }
+        }
+    }
+
+    /**
+     * Returns the trending posts, highest score first.
+     *
+     * @param limit the maximum number of posts, at most K are ever tracked
+     * @return the posts with their scores as of now
+     */
+    public List<TrendingPostDTO> getTrending(int limit) {
+        List<Entry> snapshot;
+        long epoch;
+        synchronized (lock) {
+            snapshot = new ArrayList<>(heap.size());
+            heap.forEach(entry -> snapshot.add(new Entry(entry.postId, entry.score)));
+            epoch = epochMillis;
+        }
+
+        double decay = Math.exp(-lambdaPerMilli * (System.currentTimeMillis() - epoch));
+        snapshot.sort(Comparator.comparingDouble((Entry entry) -> entry.score).reversed());
+        List<TrendingPostDTO> trending = new ArrayList<>(Math.min(limit, snapshot.size()));
+        for (int i = 0; i < snapshot.size() && i < limit; i++) {
+            Entry entry = snapshot.get(i);
+            trending.add(new TrendingPostDTO(entry.postId, entry.score * decay));
+        }
+        return trending;
+    }
+
+    private void add(UUID postId, double score) {
+        Entry entry = new Entry(postId, score);
+        heap.add(entry);
+        heapIndex.put(postId, entry);
+    }
+
+    // Moves t0 forward; every score is multiplied by the same factor, so the ranking is unchanged
+    private void rescale(long newEpochMillis) {
+        double factor = Math.exp(-lambdaPerMilli * (newEpochMillis - epochMillis));
+        for (double[] row : sketch) {
+            for (int column = 0; column < row.length; column++) {
+                row[column] *= factor;
+            }
+        }
+        heap.forEach(entry -> entry.score *= factor);
+        epochMillis = newEpochMillis;
+    }
+
+    private static final class Entry {
+        final UUID postId;
+        double score;
+
+        Entry(UUID postId, double score) {
+            this.postId = postId;
+            this.score = score;
+        }
+    }
+}
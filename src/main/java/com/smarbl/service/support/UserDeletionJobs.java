@@ -0,0 +1,134 @@
+package com.smarbl.service.support;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smarbl.dto.DeletionJobDTO;
+import com.smarbl.dto.DeletionJobStatus;
+import com.smarbl.exception.ServiceBusyException;
+
+/**
+ * Runs user deletions in the background and keeps their progress for polling.
+ * <p>
+ * Jobs run on the bounded deletionExecutor; when its queue is full a new job is
+ * refused with {@link ServiceBusyException}. At most one job runs per user:
+ * submitting a user that is already being deleted returns the existing job.
+ * Finished jobs are kept for smarbl.delete.job-retention-minutes.
+ */
+@Component
+public class UserDeletionJobs {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDeletionJobs.class);
+
+    private final CascadeDeleter cascadeDeleter;
+    private final Executor deletionExecutor;
+    private final long retryAfterSeconds;
+    private final Cache<UUID, Job> jobs;
+    private final Map<UUID, Job> activeJobsByUser = new ConcurrentHashMap<>();
+
+    public UserDeletionJobs(CascadeDeleter cascadeDeleter,
+                            @Qualifier("deletionExecutor") Executor deletionExecutor,
+                            @Value("${smarbl.delete.job-retention-minutes:60}") long retentionMinutes,
+                            @Value("${smarbl.delete.retry-after-seconds:5}") long retryAfterSeconds) {
+        this.cascadeDeleter = cascadeDeleter;
+        this.deletionExecutor = deletionExecutor;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.jobs = Caffeine.newBuilder().expireAfterWrite(Duration.ofMinutes(retentionMinutes))
+                .maximumSize(10_000).build();
+    }
+
+    /**
+     * Starts deleting a user in the background.
+     *
+     * @param userId the ID of the user to delete; the caller checks that it exists
+     * @return the new job, or the job already deleting this user
+     * @throws ServiceBusyException if too many deletions are waiting
+     */
+    public DeletionJobDTO submit(UUID userId) {
+        Job job = new Job(userId);
+        Job active = activeJobsByUser.putIfAbsent(userId, job);
+        if (active != null) {
+            return active.toDTO();
+        }
+        jobs.put(job.jobId, job);
+        try {
+            deletionExecutor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            activeJobsByUser.remove(userId, job);
+            jobs.invalidate(job.jobId);
+            throw new ServiceBusyException("Too many user deletions are waiting, please retry.", retryAfterSeconds);
+        }
+        logger.info("Queued deletion job {} for user {}", job.jobId, userId);
+        return job.toDTO();
+    }
+
+    /**
+     * @param jobId the job ID
+     * @return the job's current progress, or null if it is unknown or expired
+     */
+    public DeletionJobDTO get(UUID jobId) {
+        Job job = jobs.getIfPresent(jobId);
+        return job == null ? null : job.toDTO();
+    }
+
+    private void run(Job job) {
+        job.status = DeletionJobStatus.RUNNING;
+        try {
+            cascadeDeleter.deleteUser(job.userId, job);
+            job.status = DeletionJobStatus.COMPLETED;
+        } catch (Exception e) {
+            logger.error("Deletion job {} for user {} failed", job.jobId, job.userId, e);
+            job.message = e.getMessage();
+            job.status = DeletionJobStatus.FAILED;
+        } finally {
+            job.finishedAt = Instant.now();
+            activeJobsByUser.remove(job.userId, job);
+            // Restart the retention period from completion
+            jobs.put(job.jobId, job);
+        }
+    }
+
+    private static final class Job implements CascadeDeleter.Progress {
+        final UUID jobId = UUID.randomUUID();
+        final UUID userId;
+        final Instant submittedAt = Instant.now();
+        final AtomicLong likesDeleted = new AtomicLong();
+        final AtomicLong postsDeleted = new AtomicLong();
+        volatile DeletionJobStatus status = DeletionJobStatus.QUEUED;
+        volatile Instant finishedAt;
+        volatile String message;
+
+        Job(UUID userId) {
+            this.userId = userId;
+        }
+
+        @Override
+        public void likesDeleted(long count) {
+            likesDeleted.addAndGet(count);
+        }
+
+        @Override
+        public void postsDeleted(long count) {
+            postsDeleted.addAndGet(count);
+        }
+
+        DeletionJobDTO toDTO() {
+            return new DeletionJobDTO(jobId, userId, status, likesDeleted.get(), postsDeleted.get(), submittedAt,
+                    finishedAt, message);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.smarbl.util;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+import com.smarbl.exception.ValidationException;
+
+/**
+ * Encodes keyset pagination positions as opaque cursors.
+ * <p>
+ * A cursor is the binary form of the last row's sort key, base64url-encoded
+ * without padding, so clients cannot depend on what it contains.
+ */
+public final class CursorCodec {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private CursorCodec() {
+    }
+
+    /**
+     * @param id the ID of the last row returned
+     * @return the cursor for the next page
+     */
+    public static String encode(UUID id) {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+        return ENCODER.encodeToString(buffer.array());
+    }
+
+    /**
+     * @param cursor a cursor produced by {@link #encode(UUID)}
+     * @return the ID of the last row of the previous page
+     * @throws ValidationException if the cursor is malformed
+     */
+    public static UUID decodeUuid(String cursor) {
+        ByteBuffer buffer = decode(cursor, 16);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * @param createdAt the creation time of the last row returned
+     * @param id        the ID of the last row returned
+     * @return the cursor for the next page
+     */
+    public static String encode(Instant createdAt, UUID id) {
+        ByteBuffer buffer = ByteBuffer.allocate(28);
+        buffer.putLong(createdAt.getEpochSecond()).putInt(createdAt.getNano());
+        buffer.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+        return ENCODER.encodeToString(buffer.array());
+    }
+
+    /**
+     * @param cursor a cursor produced by {@link #encode(Instant, UUID)}
+     * @return the creation time and ID of the last row of the previous page
+     * @throws ValidationException if the cursor is malformed
+     */
+    public static TimeKey decodeTimeKey(String cursor) {
+        ByteBuffer buffer = decode(cursor, 28);
+        long epochSecond = buffer.getLong();
+        int nano = buffer.getInt();
+        if (nano < 0 || nano > 999_999_999) {
+            throw new ValidationException("Invalid cursor.");
+        }
+        return new TimeKey(Instant.ofEpochSecond(epochSecond, nano), new UUID(buffer.getLong(), buffer.getLong()));
+    }
+
+    private static ByteBuffer decode(String cursor, int length) {
+        try {
+            byte[] bytes = DECODER.decode(cursor);
+            if (bytes.length != length) {
+                throw new ValidationException("Invalid cursor.");
+            }
+            return ByteBuffer.wrap(bytes);
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            throw new ValidationException("Invalid cursor.", e);
+        }
+    }
+
+    /**
+     * A (creation time, ID) keyset position.
+     */
+    public static final class TimeKey {
+
+        private final Instant createdAt;
+        private final UUID id;
+
+        public TimeKey(Instant createdAt, UUID id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+
+        public Instant getCreatedAt() {
+            return createdAt;
+        }
+
+        public UUID getId() {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.smarbl.util;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Builds strong entity tags and evaluates If-None-Match against them.
+ * <p>
+ * Entity tags are derived from an ID and a version, never from the response body,
+ * so a conditional request can be answered without loading or serializing anything.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * @param id      the entity ID
+     * @param variant distinguishes representations of the same entity, or null
+     * @param version the entity version
+     * @return a quoted strong entity tag
+     */
+    public static String of(UUID id, String variant, long version) {
+        return '"' + id.toString() + (variant == null ? "" : "-" + variant) + "-" + version + '"';
+    }
+
+    /**
+     * Builds the tag of a collection owned by {@code id} from the values that
+     * identify its current state and the query that selected it.
+     *
+     * @param id    the owner ID
+     * @param parts the state and query values
+     * @return a quoted strong entity tag
+     */
+    public static String digest(UUID id, Object... parts) {
+        long h = Hashing.hash(id);
+        for (Object part : parts) {
+            long value = part instanceof Number ? ((Number) part).longValue() : Objects.hashCode(part);
+            h = Hashing.fmix64(h * 31 + value);
+        }
+        return '"' + id.toString() + "-" + Long.toHexString(h) + '"';
+    }
+
+    /**
+     * Evaluates an If-None-Match header against the current tag, with the weak
+     * comparison RFC 9110 prescribes for this header.
+     *
+     * @param ifNoneMatch the header value, may be null
+     * @param etag        the current strong tag
+     * @return true if the client already holds the current representation
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
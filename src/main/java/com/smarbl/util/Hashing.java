@@ -0,0 +1,35 @@
+package com.smarbl.util;
+
+import java.util.UUID;
+
+/**
+ * Hash functions shared by the in-memory sketches.
+ */
+public final class Hashing {
+
+    private Hashing() {
+    }
+
+    /**
+     * MurmurHash3 64-bit finalizer: mixes every input bit into every output bit.
+     *
+     * @param h the value to mix
+     * @return the mixed value
+     */
+    public static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * @param id the UUID to hash
+     * @return a well-mixed 64-bit hash of both halves of the UUID
+     */
+    public static long hash(UUID id) {
+        return fmix64(id.getMostSignificantBits() ^ Long.rotateLeft(id.getLeastSignificantBits(), 31));
+    }
+}
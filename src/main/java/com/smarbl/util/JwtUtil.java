@@ -1,43 +1,101 @@
 package com.smarbl.util;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.Date;
-import java.util.function.Function;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.crypto.SecretKey;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.smarbl.security.jwt.VerifiedToken;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.InvalidKeyException;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Issues and verifies JWTs.
+ * <p>
+ * The signing key and parser are built once and shared: both are immutable and
+ * thread-safe. A verified token is cached under the SHA-256 digest of its compact
+ * form until it expires, so a client that repeats a bearer token pays for one
+ * signature check and one JSON parse per token rather than per request. Only
+ * digests are kept, so the cache never holds a usable token.
+ */
 @Component
 public class JwtUtil {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtUtil.class);
 
- // Secret key should be configured in properties file
-    @Value("${jwt.secret}")
-    private String secretKey; 
-    
- // Token expiration time should be configured in properties file
-    @Value("${jwt.expiration}")
-    private long expirationTime; 
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String AUTHORITIES_CLAIM = "auth";
+
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final long expirationTime;
+    private final Cache<ByteBuffer, VerifiedToken> verifiedTokens;
+
+    // Secret key and token expiration time are configured in the properties file
+    public JwtUtil(@Value("${jwt.secret}") String secretKey,
+                   @Value("${jwt.expiration}") long expirationTime,
+                   @Value("${smarbl.jwt.cache.max-size:100000}") long cacheMaxSize,
+                   MeterRegistry meterRegistry) {
+        // The secret is base64, as the String overloads of signWith/setSigningKey expected
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.expirationTime = expirationTime;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new UntilTokenExpires())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified");
+    }
 
     /**
-     * Generate JWT token for a given user email.
+     * Generate JWT token for a user. The user ID and authorities are embedded as
+     * claims, so requests carrying the token can be authenticated without loading
+     * the user, and a random token ID lets the token be revoked on its own.
+     *
+     * @param userId      the user ID
+     * @param email       the user's email, the subject of the token
+     * @param authorities the authorities granted to the user
+     * @return the signed compact token
      */
-    public String generateToken(String email) {
+    public String generateToken(UUID userId, String email, Collection<String> authorities) {
         try {
             logger.info("Generating token for user: {}", email);
 
             return Jwts.builder()
+                    .setId(UUID.randomUUID().toString())
                     .setSubject(email)
+                    .claim(USER_ID_CLAIM, userId.toString())
+                    .claim(AUTHORITIES_CLAIM, List.copyOf(authorities))
                     .setIssuedAt(new Date())
                     .setExpiration(new Date(System.currentTimeMillis() + expirationTime))
-                    .signWith(SignatureAlgorithm.HS256, secretKey)
+                    .signWith(signingKey, SignatureAlgorithm.HS256)
                     .compact();
         } catch (InvalidKeyException e) {
             logger.error("Error generating token: Invalid key", e);
@@ -49,47 +107,69 @@ public class JwtUtil {
     }
 
     /**
-     * Validate the token and check if it's expired.
-     */
-    public boolean validateToken(String token, String email) {
-        return (email.equals(extractEmail(token)) && !isTokenExpired(token));
-    }
-
-    /**
-     * Extract user email from token.
+     * Verify a token once and return its claims. A token seen before is answered
+     * from the cache without checking its signature again.
+     *
+     * @param token the compact JWT, without the "Bearer " prefix
+     * @return the verified claims
+     * @throws io.jsonwebtoken.ExpiredJwtException if the token has expired
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, unsigned or badly signed
+     * @throws IllegalArgumentException if the token is empty or its user ID claim is not a UUID
      */
-    public String extractEmail(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
+    public VerifiedToken verify(String token) {
+        ByteBuffer digest = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null && !cached.isExpired(Instant.now())) {
+            return cached;
+        }
 
-    /**
-     * Extract expiration date from token.
-     */
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        // Parsing checks the signature and rejects an expired token
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() == null) {
+            throw new UnsupportedJwtException("JWT token has no expiration");
+        }
+        String userId = claims.get(USER_ID_CLAIM, String.class);
+        List<?> authorities = claims.get(AUTHORITIES_CLAIM, List.class);
+        VerifiedToken verified = new VerifiedToken(claims.getId(),
+                userId == null ? null : UUID.fromString(userId),
+                claims.getSubject(),
+                authorities == null ? null : authorities.stream().map(String::valueOf).collect(Collectors.toList()),
+                claims.getIssuedAt() == null ? null : claims.getIssuedAt().toInstant(),
+                claims.getExpiration().toInstant());
+        verifiedTokens.put(digest, verified);
+        return verified;
     }
 
-    /**
-     * Extract any claim from token.
-     */
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
+    private static ByteBuffer digest(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .setSigningKey(secretKey)
-                    .parseClaimsJws(token)
-                    .getBody();
-            return claimsResolver.apply(claims);
-        } catch (Exception e) {
-            logger.error("Error extracting claim from token", e);
-            throw new RuntimeException("Error extracting claim from token", e);
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
         }
     }
 
     /**
-     * Check if token is expired.
+     * Keeps each verified token until its own expiration time.
      */
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
+    private static final class UntilTokenExpires implements Expiry<ByteBuffer, VerifiedToken> {
 
+        @Override
+        public long expireAfterCreate(ByteBuffer key, VerifiedToken token, long currentTime) {
+            long millisLeft = token.getExpiresAt().toEpochMilli() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millisLeft));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, VerifiedToken token, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, VerifiedToken token, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
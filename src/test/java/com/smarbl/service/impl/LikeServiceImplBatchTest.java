@@ -0,0 +1,132 @@
+package com.smarbl.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.smarbl.dto.LikeBatchResultDTO;
+import com.smarbl.dto.LikeDTO;
+import com.smarbl.dto.LikeOutcome;
+import com.smarbl.exception.ValidationException;
+import com.smarbl.model.Post;
+import com.smarbl.model.User;
+import com.smarbl.repository.LikeRepository;
+import com.smarbl.repository.PostRepository;
+import com.smarbl.repository.UserRepository;
+import com.smarbl.service.LikeService;
+
+/**
+ * A like batch reports every item's outcome in request order, turns a null item
+ * into an INVALID outcome instead of failing the batch, and refuses batches over
+ * the size limit. A timing check compares a batch against the same likes sent one
+ * at a time.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql=WARN",
+        "logging.level.org.springframework.web=INFO"
+})
+class LikeServiceImplBatchTest {
+
+    private static final int LIKERS = 200;
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private LikeRepository likeRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void reportsEveryOutcomeInRequestOrder() {
+        User author = userRepository.save(newUser("author"));
+        User liker = userRepository.save(newUser("liker"));
+        Post post = postRepository.save(newPost(author));
+        UUID missing = UUID.randomUUID();
+
+        List<LikeBatchResultDTO> results = likeService.likePosts(Arrays.asList(
+                new LikeDTO(post.getPostId(), liker.getUserId()),
+                null,
+                new LikeDTO(post.getPostId(), liker.getUserId()),
+                new LikeDTO(post.getPostId(), author.getUserId()),
+                new LikeDTO(missing, liker.getUserId()),
+                new LikeDTO(post.getPostId(), missing)));
+
+        assertEquals(List.of(LikeOutcome.CREATED, LikeOutcome.INVALID, LikeOutcome.DUPLICATE,
+                        LikeOutcome.SELF_LIKE, LikeOutcome.MISSING_POST, LikeOutcome.MISSING_USER),
+                results.stream().map(LikeBatchResultDTO::getOutcome).toList());
+        assertNull(results.get(1).getPostId());
+        assertEquals(1, likeRepository.countByPost(post));
+        assertEquals(1, postRepository.findById(post.getPostId()).orElseThrow().getLikeCount());
+    }
+
+    @Test
+    void refusesBatchesOverTheSizeLimit() {
+        List<LikeDTO> tooMany = Collections.nCopies(1001, new LikeDTO(UUID.randomUUID(), UUID.randomUUID()));
+        assertThrows(ValidationException.class, () -> likeService.likePosts(tooMany));
+    }
+
+    @Test
+    void batchOutpacesSingleLikes() {
+        User author = userRepository.save(newUser("author"));
+        List<User> likers = new ArrayList<>();
+        for (int i = 0; i < LIKERS; i++) {
+            likers.add(newUser("liker" + i));
+        }
+        userRepository.saveAll(likers);
+        Post singlesPost = postRepository.save(newPost(author));
+        Post batchPost = postRepository.save(newPost(author));
+
+        long started = System.nanoTime();
+        for (User liker : likers) {
+            likeService.likePost(new LikeDTO(singlesPost.getPostId(), liker.getUserId()));
+        }
+        long singleNanos = System.nanoTime() - started;
+
+        List<LikeDTO> batch = new ArrayList<>();
+        likers.forEach(liker -> batch.add(new LikeDTO(batchPost.getPostId(), liker.getUserId())));
+        started = System.nanoTime();
+        likeService.likePosts(batch);
+        long batchNanos = System.nanoTime() - started;
+
+        System.out.printf("Like batch: %d likes one at a time in %d ms, as one batch in %d ms%n",
+                LIKERS, singleNanos / 1_000_000, batchNanos / 1_000_000);
+        assertEquals(LIKERS, likeRepository.countByPost(batchPost));
+        assertEquals(LIKERS, postRepository.findById(batchPost.getPostId()).orElseThrow().getLikeCount());
+        // One transaction and batched inserts against one transaction and lookup per like
+        assertTrue(batchNanos < singleNanos, "the batch should be faster than single likes");
+    }
+
+    private static Post newPost(User author) {
+        Post post = new Post();
+        post.setPostTitle("batch likes");
+        post.setPostContent("likes sent together in one request");
+        post.setUser(author);
+        return post;
+    }
+
+    private static User newUser(String name) {
+        User user = new User();
+        user.setUserName(name);
+        user.setUserEmail(name + "-" + UUID.randomUUID() + "@example.com");
+        user.setUserPassword("not-a-real-hash");
+        return user;
+    }
+}
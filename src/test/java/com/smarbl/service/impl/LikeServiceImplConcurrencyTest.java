@@ -0,0 +1,106 @@
+package com.smarbl.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.smarbl.dto.LikeDTO;
+import com.smarbl.exception.ValidationException;
+import com.smarbl.model.Post;
+import com.smarbl.model.User;
+import com.smarbl.repository.LikeRepository;
+import com.smarbl.repository.PostRepository;
+import com.smarbl.repository.UserRepository;
+import com.smarbl.service.LikeService;
+
+/**
+ * Identical likes sent at the same time must leave exactly one like row and a
+ * like count of one: the unique (post_id, user_id) constraint rejects every
+ * insert but one, and only the inserted like increments the counter.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql=WARN",
+        "logging.level.org.springframework.web=INFO"
+})
+class LikeServiceImplConcurrencyTest {
+
+    private static final int CONCURRENT_LIKES = 16;
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private LikeRepository likeRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void concurrentIdenticalLikesInsertOneLike() throws Exception {
+        User author = userRepository.save(newUser("author"));
+        User liker = userRepository.save(newUser("liker"));
+        Post post = new Post();
+        post.setPostTitle("concurrent likes");
+        post.setPostContent("one like per user, however many requests race");
+        post.setUser(author);
+        UUID postId = postRepository.save(post).getPostId();
+        UUID userId = liker.getUserId();
+
+        ExecutorService pool = Executors.newFixedThreadPool(CONCURRENT_LIKES);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < CONCURRENT_LIKES; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        likeService.likePost(new LikeDTO(postId, userId));
+                        return true;
+                    } catch (ValidationException e) {
+                        // Rejected as a duplicate of the like that won
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int liked = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(30, TimeUnit.SECONDS)) {
+                    liked++;
+                }
+            }
+            assertEquals(1, liked, "exactly one request should have liked the post");
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Post saved = postRepository.findById(postId).orElseThrow();
+        assertEquals(1, likeRepository.countByPost(saved));
+        assertEquals(1, saved.getLikeCount());
+    }
+
+    private static User newUser(String name) {
+        User user = new User();
+        user.setUserName(name);
+        user.setUserEmail(name + "-" + UUID.randomUUID() + "@example.com");
+        user.setUserPassword("not-a-real-hash");
+        return user;
+    }
+}
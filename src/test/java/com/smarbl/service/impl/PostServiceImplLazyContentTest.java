@@ -0,0 +1,155 @@
+package com.smarbl.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.smarbl.config.CacheConfig;
+import com.smarbl.dto.PostDTO;
+import com.smarbl.model.Post;
+import com.smarbl.model.User;
+import com.smarbl.repository.PostRepository;
+import com.smarbl.repository.UserRepository;
+import com.smarbl.service.PostService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Post.postContent must stay unread until it is accessed, so a post read without
+ * its content never selects the column. Hibernate statistics count the JDBC
+ * statements each read costs; a timing check compares reads with and without the
+ * content, with the posts cache cleared so both paths reach the database.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql=WARN",
+        "logging.level.org.springframework.web=INFO"
+})
+class PostServiceImplLazyContentTest {
+
+    private static final int POSTS = 200;
+    private static final int ROUNDS = 10;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void enableStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void disableStatistics() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void loadingAPostLeavesItsContentUnread() {
+        Post saved = postRepository.save(newPost(userRepository.save(newUser())));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            statistics.clear();
+            Post post = postRepository.findById(saved.getPostId()).orElseThrow();
+            assertFalse(Hibernate.isPropertyInitialized(post, "postContent"));
+            assertEquals(1, statistics.getPrepareStatementCount());
+
+            assertEquals(saved.getPostContent(), post.getPostContent());
+            assertTrue(Hibernate.isPropertyInitialized(post, "postContent"));
+            assertEquals(2, statistics.getPrepareStatementCount());
+        });
+    }
+
+    @Test
+    void summaryReadsSkipTheContentColumn() {
+        User author = userRepository.save(newUser());
+        List<UUID> postIds = new ArrayList<>();
+        for (int i = 0; i < POSTS; i++) {
+            postIds.add(postRepository.save(newPost(author)).getPostId());
+        }
+        // Warm up both paths before counting and timing
+        readAll(postIds, false);
+        readAll(postIds, true);
+
+        statistics.clear();
+        long summaryNanos = readAll(postIds, false);
+        long summaryStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        long fullNanos = readAll(postIds, true);
+        long fullStatements = statistics.getPrepareStatementCount();
+
+        int reads = POSTS * ROUNDS;
+        System.out.printf("Lazy post content: %d reads without content in %d ms (%.1f statements each),"
+                        + " with content in %d ms (%.1f statements each)%n",
+                reads, summaryNanos / 1_000_000, (double) summaryStatements / reads,
+                fullNanos / 1_000_000, (double) fullStatements / reads);
+        // Without content only the row's other columns are selected; reading the content costs a second select
+        assertEquals(reads, summaryStatements);
+        assertEquals(2L * reads, fullStatements);
+        assertNull(postService.getPostById(postIds.get(0), false).getPostContent());
+    }
+
+    private long readAll(List<UUID> postIds, boolean includeContent) {
+        long elapsed = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            cacheManager.getCache(CacheConfig.POSTS).clear();
+            long started = System.nanoTime();
+            for (UUID postId : postIds) {
+                postService.getPostById(postId, includeContent);
+            }
+            elapsed += System.nanoTime() - started;
+        }
+        return elapsed;
+    }
+
+    private static Post newPost(User author) {
+        Post post = new Post();
+        post.setPostTitle("lazy content");
+        post.setPostContent("x".repeat(250));
+        post.setUser(author);
+        return post;
+    }
+
+    private static User newUser() {
+        User user = new User();
+        user.setUserName("author");
+        user.setUserEmail("author-" + UUID.randomUUID() + "@example.com");
+        user.setUserPassword("not-a-real-hash");
+        return user;
+    }
+}
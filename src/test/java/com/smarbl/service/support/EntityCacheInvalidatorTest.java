@@ -0,0 +1,63 @@
+package com.smarbl.service.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import com.smarbl.config.CacheConfig;
+import com.smarbl.dto.PostDTO;
+import com.smarbl.dto.UserDTO;
+import com.smarbl.event.PostDeletedEvent;
+import com.smarbl.event.UserUpdatedEvent;
+
+/**
+ * A read that loaded a row before a committed update or delete must not put the
+ * old row back into the cache after the eviction, while reads of the committed
+ * version are cached as usual.
+ */
+class EntityCacheInvalidatorTest {
+
+    private final EntityCacheInvalidator invalidator = new EntityCacheInvalidator(
+            new ConcurrentMapCacheManager(CacheConfig.POSTS, CacheConfig.USERS), 600, 1000);
+
+    @Test
+    void cachesReadsOfEntitiesThatHaveNotChanged() {
+        UUID userId = UUID.randomUUID();
+        UserDTO user = new UserDTO(userId, "name", "user@example.com");
+        invalidator.putIfCurrent(CacheConfig.USERS, userId, user, 0);
+        assertEquals(user, invalidator.get(CacheConfig.USERS, userId, UserDTO.class));
+    }
+
+    @Test
+    void refusesAReadOlderThanTheCommittedUpdate() {
+        UUID userId = UUID.randomUUID();
+        UserDTO stale = new UserDTO(userId, "old name", "user@example.com");
+        invalidator.putIfCurrent(CacheConfig.USERS, userId, stale, 0);
+
+        invalidator.onUserUpdated(new UserUpdatedEvent(userId, "user@example.com", "user@example.com", false, 1));
+        assertNull(invalidator.get(CacheConfig.USERS, userId, UserDTO.class));
+
+        // A read in flight since before the commit finishes late
+        invalidator.putIfCurrent(CacheConfig.USERS, userId, stale, 0);
+        assertNull(invalidator.get(CacheConfig.USERS, userId, UserDTO.class));
+
+        UserDTO current = new UserDTO(userId, "new name", "user@example.com");
+        invalidator.putIfCurrent(CacheConfig.USERS, userId, current, 1);
+        assertEquals(current, invalidator.get(CacheConfig.USERS, userId, UserDTO.class));
+    }
+
+    @Test
+    void neverCachesADeletedPostAgain() {
+        UUID postId = UUID.randomUUID();
+        PostDTO post = new PostDTO(postId, "title", "content of the post", UUID.randomUUID());
+        invalidator.putIfCurrent(CacheConfig.POSTS, postId, post, 3);
+
+        invalidator.onPostDeleted(new PostDeletedEvent(postId));
+        invalidator.putIfCurrent(CacheConfig.POSTS, postId, post, 3);
+        assertNull(invalidator.get(CacheConfig.POSTS, postId, PostDTO.class));
+    }
+}
@@ -0,0 +1,77 @@
+package com.smarbl.service.support;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.smarbl.repository.LikeRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * A filter loaded with its expected number of likes must never deny a like it
+ * holds, and must wrongly report absent pairs as possibly liked at close to the
+ * configured rate.
+ */
+class LikeBloomFilterTest {
+
+    private static final int EXPECTED_INSERTIONS = 100_000;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Test
+    void answersPossiblyLikedUntilLoaded() {
+        LikeBloomFilter filter = newFilter();
+        assertTrue(filter.mightContain(UUID.randomUUID(), UUID.randomUUID()));
+    }
+
+    @Test
+    void neverDeniesAnInsertedLikeAndStaysNearTheTargetFalsePositiveRate() {
+        LikeBloomFilter filter = newFilter();
+        filter.start();
+
+        List<UUID[]> inserted = new ArrayList<>(EXPECTED_INSERTIONS);
+        for (int i = 0; i < EXPECTED_INSERTIONS; i++) {
+            UUID[] pair = { randomUuid(), randomUuid() };
+            filter.put(pair[0], pair[1]);
+            inserted.add(pair);
+        }
+        for (UUID[] pair : inserted) {
+            assertTrue(filter.mightContain(pair[0], pair[1]), "an inserted like was reported absent");
+        }
+
+        int probes = 200_000;
+        int falsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(randomUuid(), randomUuid())) {
+                falsePositives++;
+            }
+        }
+        double observed = (double) falsePositives / probes;
+        // Sharding costs a little accuracy; well over twice the target would mean broken sizing or hashing
+        assertTrue(observed < FALSE_POSITIVE_RATE * 2, "observed false-positive rate " + observed);
+        assertTrue(filter.getEstimatedFalsePositiveRate() < FALSE_POSITIVE_RATE * 2,
+                "estimated false-positive rate " + filter.getEstimatedFalsePositiveRate());
+    }
+
+    private LikeBloomFilter newFilter() {
+        LikeRepository likeRepository = mock(LikeRepository.class);
+        when(likeRepository.streamAllPostUserPairs()).thenReturn(Stream.empty());
+        return new LikeBloomFilter(likeRepository, mock(PlatformTransactionManager.class), new SimpleMeterRegistry(),
+                EXPECTED_INSERTIONS, FALSE_POSITIVE_RATE, 8);
+    }
+
+    private UUID randomUuid() {
+        return new UUID(random.nextLong(), random.nextLong());
+    }
+}
@@ -0,0 +1,134 @@
+package com.smarbl.service.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.smarbl.exception.RateLimitedException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The GCRA buckets must allow a burst, then one attempt per refill interval, and
+ * report in Retry-After how long until the next attempt is allowed. Time is driven
+ * by a fake ticker, so refills are exact and the tests never sleep.
+ */
+class LoginRateLimiterTest {
+
+    private static final String EMAIL = "user@example.com";
+
+    private final FakeTicker ticker = new FakeTicker();
+
+    // Per email: a burst of 5, then 1 per minute; per IP: a burst of 3, then 6 per minute
+    private final LoginRateLimiter limiter = new LoginRateLimiter(new SimpleMeterRegistry(), 3, 6, 5, 1, 1000, ticker);
+
+    @Test
+    void allowsTheBurstThenRefusesWithRetryAfterOfOneInterval() {
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire(EMAIL, null);
+        }
+        RateLimitedException refused = assertThrows(RateLimitedException.class, () -> limiter.acquire(EMAIL, null));
+        assertEquals(60, refused.getRetryAfterSeconds());
+    }
+
+    @Test
+    void refillsOneAttemptPerInterval() {
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire(EMAIL, null);
+        }
+
+        ticker.advance(30, TimeUnit.SECONDS);
+        RateLimitedException refused = assertThrows(RateLimitedException.class, () -> limiter.acquire(EMAIL, null));
+        assertEquals(30, refused.getRetryAfterSeconds());
+
+        ticker.advance(30, TimeUnit.SECONDS);
+        limiter.acquire(EMAIL, null);
+        assertThrows(RateLimitedException.class, () -> limiter.acquire(EMAIL, null));
+    }
+
+    @Test
+    void roundsRetryAfterUpToWholeSeconds() {
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire(EMAIL, null);
+        }
+        ticker.advance(TimeUnit.SECONDS.toNanos(59) + 1, TimeUnit.NANOSECONDS);
+        RateLimitedException refused = assertThrows(RateLimitedException.class, () -> limiter.acquire(EMAIL, null));
+        assertEquals(1, refused.getRetryAfterSeconds());
+    }
+
+    @Test
+    void idleBucketRefillsToTheBurstAndNoFurther() {
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire(EMAIL, null);
+        }
+        ticker.advance(1, TimeUnit.HOURS);
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire(EMAIL, null);
+        }
+        assertThrows(RateLimitedException.class, () -> limiter.acquire(EMAIL, null));
+    }
+
+    @Test
+    void emailsAreLimitedCaseAndWhitespaceInsensitively() {
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire(i % 2 == 0 ? " User@Example.com " : EMAIL, null);
+        }
+        assertThrows(RateLimitedException.class, () -> limiter.acquire("USER@EXAMPLE.COM", null));
+        limiter.acquire("other@example.com", null);
+    }
+
+    @Test
+    void limitsEachClientAddressSeparately() {
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(null, "10.0.0.1");
+        }
+        RateLimitedException refused = assertThrows(RateLimitedException.class,
+                () -> limiter.acquire(null, "10.0.0.1"));
+        assertEquals(10, refused.getRetryAfterSeconds());
+        limiter.acquire(null, "10.0.0.2");
+    }
+
+    @Test
+    void checkCostsMicrosecondsAtMost() {
+        LoginRateLimiter unbounded = new LoginRateLimiter(new SimpleMeterRegistry(), Integer.MAX_VALUE,
+                Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, 100_000, Ticker.systemTicker());
+        String[] emails = new String[1024];
+        String[] addresses = new String[1024];
+        for (int i = 0; i < emails.length; i++) {
+            emails[i] = "user" + i + "@example.com";
+            addresses[i] = "10.0." + (i >> 8) + "." + (i & 255);
+        }
+        // Warm up the JIT and the caches before timing
+        for (int i = 0; i < 200_000; i++) {
+            unbounded.acquire(emails[i & 1023], addresses[i & 1023]);
+        }
+
+        int checks = 500_000;
+        long started = System.nanoTime();
+        for (int i = 0; i < checks; i++) {
+            unbounded.acquire(emails[i & 1023], addresses[i & 1023]);
+        }
+        long nanosPerCheck = (System.nanoTime() - started) / checks;
+        System.out.println("LoginRateLimiter: " + nanosPerCheck + " ns per check of an email and an address");
+        // A loose bound that still catches a lock, a database call or a hash in the check path
+        assertTrue(nanosPerCheck < 20_000, nanosPerCheck + " ns per check");
+    }
+
+    private static final class FakeTicker implements Ticker {
+        private long nanos = 1_000_000_000L;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(long amount, TimeUnit unit) {
+            nanos += unit.toNanos(amount);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.smarbl.service.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.smarbl.dto.TrendingPostDTO;
+import com.smarbl.event.PostDeletedEvent;
+
+/**
+ * The top-K must rank posts by decayed like count, let a post that overtakes the
+ * lowest ranked one take its place, keep ranking correctly across a rescale, and
+ * drop deleted posts. Likes are recorded at explicit times relative to now with a
+ * one hour half-life.
+ */
+class TrendingPostsTest {
+
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    private final TrendingPosts trending = new TrendingPosts(3, Duration.ofHours(1), 1024, 4);
+    private final long now = System.currentTimeMillis();
+
+    @Test
+    void keepsTheTopKHighestFirst() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        like(first, 5, now);
+        like(second, 3, now);
+        like(third, 1, now);
+
+        assertEquals(List.of(first, second, third), postIds(trending.getTrending(10)));
+        assertEquals(List.of(first, second), postIds(trending.getTrending(2)));
+    }
+
+    @Test
+    void replacesTheLowestRankedPostWhenOvertaken() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        UUID newcomer = UUID.randomUUID();
+        like(first, 5, now);
+        like(second, 3, now);
+        like(third, 1, now);
+
+        // One like only ties the lowest score, which is not enough to enter
+        like(newcomer, 1, now);
+        assertEquals(List.of(first, second, third), postIds(trending.getTrending(10)));
+
+        like(newcomer, 1, now);
+        assertEquals(List.of(first, second, newcomer), postIds(trending.getTrending(10)));
+    }
+
+    @Test
+    void weighsRecentLikesAboveOlderOnes() {
+        UUID older = UUID.randomUUID();
+        UUID recent = UUID.randomUUID();
+        like(older, 4, now);
+        // Two half-lives later each like counts four times as much
+        like(recent, 3, now + 2 * HOUR);
+
+        List<TrendingPostDTO> ranked = trending.getTrending(10);
+        assertEquals(List.of(recent, older), postIds(ranked));
+        assertEquals(3.0, ranked.get(0).getScore() / ranked.get(1).getScore(), 1e-9);
+    }
+
+    @Test
+    void keepsTheRankingAcrossARescale() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        like(first, 2, now);
+        like(second, 1, now);
+        // 100 half-lives forward is far past the rescale threshold
+        like(first, 2, now + 100 * HOUR);
+        like(second, 1, now + 100 * HOUR);
+
+        List<TrendingPostDTO> ranked = trending.getTrending(10);
+        assertEquals(List.of(first, second), postIds(ranked));
+        ranked.forEach(post -> assertTrue(Double.isFinite(post.getScore()), "score " + post.getScore()));
+        assertEquals(2.0, ranked.get(0).getScore() / ranked.get(1).getScore(), 1e-9);
+    }
+
+    @Test
+    void dropsDeletedPosts() {
+        UUID kept = UUID.randomUUID();
+        UUID deleted = UUID.randomUUID();
+        like(kept, 1, now);
+        like(deleted, 2, now);
+
+        trending.onPostDeleted(new PostDeletedEvent(deleted));
+        assertEquals(List.of(kept), postIds(trending.getTrending(10)));
+    }
+
+    private void like(UUID postId, int likes, long atMillis) {
+        for (int i = 0; i < likes; i++) {
+            trending.record(postId, atMillis);
+        }
+    }
+
+    private static List<UUID> postIds(List<TrendingPostDTO> posts) {
+        return posts.stream().map(TrendingPostDTO::getPostId).toList();
+    }
+}
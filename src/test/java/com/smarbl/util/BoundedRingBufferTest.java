@@ -0,0 +1,116 @@
+package com.smarbl.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Producers and consumers racing on a small buffer must hand over every element
+ * exactly once, in order per producer, and offers must fail rather than block
+ * when the buffer is full.
+ */
+class BoundedRingBufferTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int CONSUMERS = 4;
+    private static final int PER_PRODUCER = 20_000;
+
+    @Test
+    void capacityIsRoundedUpAndFullBufferRefusesOffers() {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(5);
+        assertEquals(8, buffer.capacity());
+        for (int i = 0; i < 8; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(8));
+        assertEquals(8, buffer.size());
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(8, buffer.drainTo(drained, 100));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7), drained);
+        assertNull(buffer.poll());
+        assertTrue(buffer.offer(9));
+    }
+
+    @Test
+    void concurrentProducersAndConsumersHandOverEveryElementOnce() throws Exception {
+        BoundedRingBuffer<Long> buffer = new BoundedRingBuffer<>(64);
+        ExecutorService pool = Executors.newFixedThreadPool(PRODUCERS + CONSUMERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger producersLeft = new AtomicInteger(PRODUCERS);
+        try {
+            List<Future<?>> producers = new ArrayList<>();
+            for (int p = 0; p < PRODUCERS; p++) {
+                long producer = p;
+                producers.add(pool.submit(() -> {
+                    start.await();
+                    for (long i = 0; i < PER_PRODUCER; i++) {
+                        // Element encodes producer and sequence; a full buffer is retried
+                        while (!buffer.offer(producer * PER_PRODUCER + i)) {
+                            Thread.yield();
+                        }
+                    }
+                    producersLeft.decrementAndGet();
+                    return null;
+                }));
+            }
+
+            List<Future<long[]>> consumers = new ArrayList<>();
+            for (int c = 0; c < CONSUMERS; c++) {
+                consumers.add(pool.submit(() -> {
+                    start.await();
+                    long[] seen = new long[PRODUCERS];
+                    long[] last = new long[PRODUCERS];
+                    Arrays.fill(last, -1);
+                    while (true) {
+                        Long element = buffer.poll();
+                        if (element == null) {
+                            if (producersLeft.get() == 0 && buffer.size() == 0) {
+                                return seen;
+                            }
+                            Thread.yield();
+                            continue;
+                        }
+                        int producer = (int) (element / PER_PRODUCER);
+                        long sequence = element % PER_PRODUCER;
+                        // Each consumer sees one producer's elements in the order they were offered
+                        assertTrue(sequence > last[producer], "element " + element + " out of order");
+                        last[producer] = sequence;
+                        seen[producer]++;
+                    }
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> producer : producers) {
+                producer.get(60, TimeUnit.SECONDS);
+            }
+            long[] total = new long[PRODUCERS];
+            for (Future<long[]> consumer : consumers) {
+                long[] seen = consumer.get(60, TimeUnit.SECONDS);
+                for (int p = 0; p < PRODUCERS; p++) {
+                    total[p] += seen[p];
+                }
+            }
+            for (int p = 0; p < PRODUCERS; p++) {
+                assertEquals(PER_PRODUCER, total[p], "elements of producer " + p);
+            }
+            assertNull(buffer.poll());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.smarbl.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.smarbl.exception.ValidationException;
+
+/**
+ * Cursors must decode to exactly the key they were encoded from, and anything a
+ * client could send that is not such a cursor must be rejected as a validation
+ * error rather than failing further down.
+ */
+class CursorCodecTest {
+
+    @Test
+    void roundTripsAnId() {
+        UUID id = UUID.randomUUID();
+        assertEquals(id, CursorCodec.decodeUuid(CursorCodec.encode(id)));
+    }
+
+    @Test
+    void roundTripsATimeKey() {
+        Instant createdAt = Instant.ofEpochSecond(1_700_000_000L, 123_456_789);
+        UUID id = UUID.randomUUID();
+
+        CursorCodec.TimeKey key = CursorCodec.decodeTimeKey(CursorCodec.encode(createdAt, id));
+        assertEquals(createdAt, key.getCreatedAt());
+        assertEquals(id, key.getId());
+    }
+
+    @Test
+    void rejectsCursorsThatAreNotBase64Url() {
+        assertThrows(ValidationException.class, () -> CursorCodec.decodeUuid("not a cursor!"));
+        assertThrows(ValidationException.class, () -> CursorCodec.decodeTimeKey("+/+/"));
+    }
+
+    @Test
+    void rejectsCursorsOfTheWrongLength() {
+        String idCursor = CursorCodec.encode(UUID.randomUUID());
+        assertThrows(ValidationException.class, () -> CursorCodec.decodeTimeKey(idCursor));
+
+        String timeKeyCursor = CursorCodec.encode(Instant.now(), UUID.randomUUID());
+        assertThrows(ValidationException.class, () -> CursorCodec.decodeUuid(timeKeyCursor));
+        assertThrows(ValidationException.class, () -> CursorCodec.decodeUuid(""));
+    }
+
+    @Test
+    void rejectsATimeKeyWithAnOutOfRangeNano() {
+        ByteBuffer buffer = ByteBuffer.allocate(28);
+        buffer.putLong(1_700_000_000L).putInt(1_000_000_000).putLong(1L).putLong(2L);
+        String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+
+        assertThrows(ValidationException.class, () -> CursorCodec.decodeTimeKey(cursor));
+    }
+}
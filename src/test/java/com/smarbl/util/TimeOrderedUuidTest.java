@@ -0,0 +1,60 @@
+package com.smarbl.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Generated IDs must be well-formed version 7 UUIDs carrying the current time,
+ * strictly increasing even when many are generated within one millisecond, and
+ * unique across threads.
+ */
+class TimeOrderedUuidTest {
+
+    @Test
+    void generatesStrictlyIncreasingVersion7Ids() {
+        long before = System.currentTimeMillis();
+        UUID previous = TimeOrderedUuid.next();
+        for (int i = 0; i < 10_000; i++) {
+            UUID id = TimeOrderedUuid.next();
+            assertEquals(7, id.version());
+            assertEquals(2, id.variant());
+            assertTrue(Long.compareUnsigned(id.getMostSignificantBits(), previous.getMostSignificantBits()) > 0,
+                    id + " does not follow " + previous);
+            previous = id;
+        }
+
+        // A full counter carries into the timestamp, so allow the last ID to run a little ahead
+        long timestamp = previous.getMostSignificantBits() >>> 16;
+        assertTrue(timestamp >= before, "timestamp " + timestamp + " is before " + before);
+        assertTrue(timestamp <= System.currentTimeMillis() + 1_000, "timestamp " + timestamp + " is too far ahead");
+    }
+
+    @Test
+    void generatesUniqueIdsAcrossThreads() throws InterruptedException {
+        int threads = 4;
+        int perThread = 20_000;
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    ids.add(TimeOrderedUuid.next());
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(threads * perThread, ids.size());
+    }
+}